@@ -0,0 +1,41 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits to an asynchronous subscriber whose stages complete immediately, measuring the
+ * cost of tracking events in flight under each completion order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AsyncSubscriberBenchmark {
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    @Param({"1", "64"})
+    public int maxInFlight;
+
+    @Param({"ORDERED", "UNORDERED"})
+    public CompletionOrder order;
+
+    private EventBus<Integer> bus;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        bus = EventBus.blocking();
+        bus.subscribeAsync((event, subscription) -> {
+            blackhole.consume(event);
+            return COMPLETED;
+        }, EventBus.DIRECT_EXECUTOR, maxInFlight, order, maxInFlight, OverflowPolicy.BLOCK);
+    }
+
+    @Benchmark
+    public void emit() {
+        bus.emit(42);
+    }
+}
@@ -0,0 +1,24 @@
+package com.benbarkay.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pre-built event batches shared by benchmarks.
+ */
+final class Batches {
+
+    static final List<Integer> INTEGERS;
+
+    static {
+        List<Integer> integers = new ArrayList<>(1000);
+        for (int i = 0; i < 1000; i++) {
+            integers.add(i);
+        }
+        INTEGERS = Collections.unmodifiableList(integers);
+    }
+
+    private Batches() {
+    }
+}
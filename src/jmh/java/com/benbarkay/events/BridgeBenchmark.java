@@ -0,0 +1,65 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits through a bridge to a source in the same process, over each transport. The receiving
+ * end runs on the bridge's own thread, so this measures the throughput of the transports rather
+ * than the latency between processes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BridgeBenchmark {
+
+    @Param({"sharedMemory", "socket"})
+    public String transport;
+
+    private Path file;
+    private BridgedEventSource<String> source;
+    private EventBridge<String> bridge;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws IOException {
+        switch (transport) {
+            case "sharedMemory":
+                file = Files.createTempFile("bridge", ".ring");
+                Files.delete(file);
+                source = BridgedEventSource.sharedMemory(file, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR);
+                bridge = EventBridge.sharedMemory(file, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR);
+                break;
+            case "socket":
+                source = BridgedEventSource.listen(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                        EventCodec.utf8(),
+                        EventBus.DIRECT_EXECUTOR);
+                bridge = EventBridge.connect(source.address(), EventCodec.utf8(), EventBus.DIRECT_EXECUTOR);
+                break;
+            default:
+                throw new IllegalArgumentException(transport);
+        }
+        source.consume(blackhole::consume);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        bridge.close();
+        source.close();
+        if (file != null) {
+            Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public void emit() {
+        bridge.emit("event");
+    }
+}
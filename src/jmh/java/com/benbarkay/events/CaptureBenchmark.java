@@ -0,0 +1,48 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time from {@code capture()} to the completion of the captured future.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CaptureBenchmark {
+
+    @Param({"blocking", "pooled"})
+    public String executor;
+
+    private ExecutorService pool;
+    private EventBus<Integer> bus;
+
+    @Setup
+    public void setUp() {
+        if (executor.equals("pooled")) {
+            pool = Executors.newFixedThreadPool(4);
+            bus = EventBus.create(pool);
+        } else {
+            bus = EventBus.blocking();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Integer capture() throws ExecutionException, InterruptedException {
+        CompletableFuture<Integer> future = bus.capture();
+        bus.emit(42);
+        return future.get();
+    }
+}
@@ -0,0 +1,86 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits bursts of state updates over a few keys to a slow subscriber, and waits for the
+ * subscriber to catch up after each burst. A plain subscription accepts every update, while
+ * a conflating one only accepts the latest update of each key pending at the time, so the
+ * difference is the subscriber work saved by conflation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConflationBenchmark {
+
+    @Param({"false", "true"})
+    public boolean conflating;
+
+    @Param({"16"})
+    public int keys;
+
+    @Param({"1024"})
+    public int burst;
+
+    @Param({"500"})
+    public long work;
+
+    private EventBus<Update> bus;
+    private ExecutorService executor;
+    private Update[] updates;
+    private volatile CountDownLatch caughtUp;
+
+    @Setup
+    public void setUp() {
+        bus = EventBus.blocking();
+        executor = Executors.newSingleThreadExecutor();
+        EventSubscriber<Update> subscriber = (update, subscription) -> {
+            Blackhole.consumeCPU(work);
+            if (update.sequence == burst - 1) {
+                caughtUp.countDown();
+            }
+        };
+        if (conflating) {
+            bus.subscribeConflating(subscriber, executor, update -> update.key);
+        } else {
+            bus.subscribe(subscriber, executor);
+        }
+        updates = new Update[burst];
+        for (int i = 0; i < burst; i++) {
+            updates[i] = new Update(i % keys, i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        caughtUp = new CountDownLatch(1);
+        for (Update update : updates) {
+            bus.emit(update);
+        }
+        // The last update of a burst is always accepted, conflated or not.
+        if (!caughtUp.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("subscriber did not catch up");
+        }
+    }
+
+    private static class Update {
+        final int key;
+        final long sequence;
+
+        Update(int key, long sequence) {
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+}
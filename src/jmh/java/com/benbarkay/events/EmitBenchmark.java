@@ -0,0 +1,81 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Emits to a single subscriber, on a blocking bus and on buses backed by a thread pool
+ * and by a ring buffer. Asynchronous buses are drained after every batch, so that the
+ * executor's queue does not grow without bound.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmitBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"blocking", "pooled", "ringBuffer"})
+    public String executor;
+
+    private ExecutorService pool;
+    private EventBus<Integer> bus;
+    private AtomicLong delivered;
+    private long emitted;
+
+    @Setup
+    public void setUp() {
+        switch (executor) {
+            case "blocking":
+                bus = EventBus.blocking();
+                break;
+            case "pooled":
+                pool = Executors.newFixedThreadPool(4);
+                bus = EventBus.create(pool);
+                break;
+            case "ringBuffer":
+                bus = EventBus.ringBuffer(1 << 14, RingBufferExecutor.WaitStrategy.YIELD);
+                break;
+            default:
+                throw new IllegalArgumentException(executor);
+        }
+        delivered = new AtomicLong();
+        bus.consume(e -> delivered.incrementAndGet());
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+        if (bus.executor() instanceof RingBufferExecutor) {
+            ((RingBufferExecutor) bus.executor()).shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void emit() {
+        for (int i = 0; i < BATCH; i++) {
+            bus.emit(i);
+        }
+        emitted += BATCH;
+        while (delivered.get() < emitted) {
+            Thread.yield();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void emitAll() {
+        bus.emitAll(Batches.INTEGERS);
+        emitted += BATCH;
+        while (delivered.get() < emitted) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits to a subscriber which always throws, measuring the cost of routing the exception
+ * to a handler registered on the subscription and to a handler registered on the source.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErrorDispatchBenchmark {
+
+    private static final IllegalStateException FAILURE = new IllegalStateException("failure");
+
+    private EventBus<Integer> subscriptionHandled;
+    private EventBus<Integer> sourceHandled;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        subscriptionHandled = EventBus.blocking();
+        subscriptionHandled.consume(e -> {
+            throw FAILURE;
+        }).error(IllegalStateException.class, blackhole::consume);
+
+        sourceHandled = EventBus.blocking();
+        // Failures of a stage are handled by the source it returns, not by its upstream.
+        sourceHandled.map(e -> {
+            throw FAILURE;
+        }).error(RuntimeException.class, blackhole::consume).consume(blackhole::consume);
+    }
+
+    @Benchmark
+    public void subscriptionHandler() {
+        subscriptionHandled.emit(42);
+    }
+
+    @Benchmark
+    public void sourceHandler() {
+        sourceHandled.emit(42);
+    }
+}
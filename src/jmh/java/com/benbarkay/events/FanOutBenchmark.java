@@ -0,0 +1,54 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits to an increasing number of subscribers of a blocking bus, which delivers to them
+ * either serially or in parallel. Since a blocking bus returns once every subscriber has
+ * accepted the event, the time of an emission is the latency of delivery to the last subscriber.
+ * Subscribers spend {@code work} tokens of CPU time on each event, which is where parallel
+ * delivery pays off.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FanOutBenchmark {
+
+    @Param({"1", "10", "100", "1000", "2000"})
+    public int subscribers;
+
+    @Param({"serial", "parallel"})
+    public String delivery;
+
+    @Param({"0", "100"})
+    public int work;
+
+    @Param({"64"})
+    public int chunkSize;
+
+    private EventBus<Integer> bus;
+    private Integer event;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        bus = delivery.equals("parallel")
+                ? EventBus.parallel(EventBus.DIRECT_EXECUTOR, ForkJoinPool.commonPool(), chunkSize)
+                : EventBus.blocking();
+        for (int i = 0; i < subscribers; i++) {
+            bus.consume(e -> {
+                Blackhole.consumeCPU(work);
+                blackhole.consume(e);
+            });
+        }
+        event = 42;
+    }
+
+    @Benchmark
+    public void emit() {
+        bus.emit(event);
+    }
+}
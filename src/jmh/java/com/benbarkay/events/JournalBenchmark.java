@@ -0,0 +1,76 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Emits to a blocking bus directly, and through journals with different sync policies.
+ * The journal is recreated for every iteration, so that segments do not pile up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JournalBenchmark {
+
+    private static final String EVENT = "{\"type\":\"benchmark\",\"value\":42}";
+
+    @Param({"plain", "never", "groupCommit", "always"})
+    public String sync;
+
+    private Path directory;
+    private EventJournal<String> journal;
+    private EventEmitter<String> emitter;
+
+    @Setup(Level.Iteration)
+    public void setUp(Blackhole blackhole) throws IOException {
+        EventBus<String> bus = EventBus.blocking();
+        bus.consume(blackhole::consume);
+        if ("plain".equals(sync)) {
+            emitter = bus;
+            return;
+        }
+        EventJournal.SyncPolicy policy;
+        switch (sync) {
+            case "never":
+                policy = EventJournal.SyncPolicy.never();
+                break;
+            case "groupCommit":
+                policy = EventJournal.SyncPolicy.groupCommit(1000, 10, TimeUnit.MILLISECONDS);
+                break;
+            case "always":
+                policy = EventJournal.SyncPolicy.always();
+                break;
+            default:
+                throw new IllegalArgumentException(sync);
+        }
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = EventJournal.open(directory, EventCodec.utf8(), bus, EventJournal.DEFAULT_SEGMENT_SIZE, policy);
+        emitter = journal;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        journal.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public void emit() {
+        emitter.emit(EVENT);
+    }
+}
@@ -0,0 +1,42 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits to a blocking bus with a few subscribers, without metrics and with
+ * {@link EventBusStatistics}, to measure the overhead of instrumentation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MetricsBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"none", "statistics"})
+    public String metrics;
+
+    private EventBus<Integer> bus;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        bus = EventBus.blocking("none".equals(metrics) ? EventBusMetrics.NONE : new EventBusStatistics());
+        for (int i = 0; i < 4; i++) {
+            bus.subscribe((e, s) -> blackhole.consume(e));
+        }
+    }
+
+    @Benchmark
+    public void emit() {
+        bus.emit(42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void emitAll() {
+        bus.emitAll(Batches.INTEGERS);
+    }
+}
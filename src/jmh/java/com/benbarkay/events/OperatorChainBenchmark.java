@@ -0,0 +1,48 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits through chains of alternating {@code filter}, {@code map} and {@code peek} stages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OperatorChainBenchmark {
+
+    @Param({"1", "2", "3", "4", "5"})
+    public int depth;
+
+    private EventBus<Integer> bus;
+    private EventSource<Integer> chain;
+    private int next;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        bus = EventBus.blocking();
+        EventSource<Integer> source = bus;
+        for (int i = 0; i < depth; i++) {
+            switch (i % 3) {
+                case 0:
+                    source = source.filter(e -> e >= 0);
+                    break;
+                case 1:
+                    source = source.map(e -> e + 1);
+                    break;
+                default:
+                    source = source.peek(blackhole::consume);
+            }
+        }
+        source.consume(blackhole::consume);
+        // Held so that the chain is not torn down by garbage collection.
+        chain = source;
+    }
+
+    @Benchmark
+    public void emit() {
+        bus.emit(next++ & 0xff);
+    }
+}
@@ -0,0 +1,55 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits telemetry samples to subscribers of a blocking bus, allocating a sample per emission,
+ * and acquiring samples from a pool. Run with {@code -prof gc} to verify that pooled emission
+ * does not allocate in a steady state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PoolingBenchmark {
+
+    @Param({"1", "4"})
+    public int subscribers;
+
+    private EventBus<Sample> allocating;
+    private EventBus<Sample> pooled;
+    private EventPool<Sample> pool;
+    private long sequence;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        allocating = EventBus.blocking();
+        pooled = EventBus.pooled(EventBus.DIRECT_EXECUTOR);
+        pool = EventPool.create(Sample::new, 64);
+        for (int i = 0; i < subscribers; i++) {
+            allocating.consume(sample -> blackhole.consume(sample.value));
+            pooled.consume(sample -> blackhole.consume(sample.value));
+        }
+    }
+
+    @Benchmark
+    public void allocating() {
+        allocating.emit(new Sample().value(sequence++));
+    }
+
+    @Benchmark
+    public void pooled() {
+        pooled.emit(pool.acquire().value(sequence++));
+    }
+
+    public static class Sample extends PooledEvent {
+        private long value;
+
+        Sample value(long value) {
+            this.value = value;
+            return this;
+        }
+    }
+}
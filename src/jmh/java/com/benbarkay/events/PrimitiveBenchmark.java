@@ -0,0 +1,44 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits sequence numbers through a {@code filter} and {@code map} chain of a boxed bus and of a
+ * {@link LongEventBus}. Run with {@code -prof gc} to verify that the primitive chain does not
+ * allocate, while the boxed chain allocates a {@code Long} per emitted and per mapped event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PrimitiveBenchmark {
+
+    private EventBus<Long> boxed;
+    private LongEventBus primitive;
+    private long sequence;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        boxed = EventBus.blocking();
+        boxed.filter(e -> (e & 1) == 0)
+                .map(e -> e * 31)
+                .consume(blackhole::consume);
+        primitive = LongEventBus.create();
+        primitive.filter(e -> (e & 1) == 0)
+                .map(e -> e * 31)
+                .consume(blackhole::consume);
+    }
+
+    @Benchmark
+    public void boxed() {
+        // Sequence numbers are beyond the cache of boxed longs, as they would be in practice.
+        boxed.emit(sequence++ + 1024);
+    }
+
+    @Benchmark
+    public void primitive() {
+        primitive.emit(sequence++ + 1024);
+    }
+}
@@ -0,0 +1,59 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares delivery to a direct subscription with delivery through the Reactive Streams
+ * publisher adapter, with the subscriber requesting unbounded demand.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PublisherBenchmark {
+
+    private EventBus<Integer> direct;
+    private EventBus<Integer> published;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        direct = EventBus.blocking();
+        direct.consume(blackhole::consume);
+
+        published = EventBus.blocking();
+        ReactiveStreams.toPublisher(published).subscribe(new Subscriber<Integer>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Integer event) {
+                blackhole.consume(event);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                blackhole.consume(t);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+    }
+
+    @Benchmark
+    public void directSubscription() {
+        direct.emit(42);
+    }
+
+    @Benchmark
+    public void publisher() {
+        published.emit(42);
+    }
+}
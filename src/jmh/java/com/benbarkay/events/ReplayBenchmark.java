@@ -0,0 +1,52 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits to a blocking subscriber of a plain bus and of replaying buses. Run with
+ * {@code -prof gc} to verify that recording events for replay does not allocate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReplayBenchmark {
+
+    @Param({"plain", "lastValue", "replay", "windowed"})
+    public String bus;
+
+    private EventEmitter<Integer> emitter;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        if (bus.equals("plain")) {
+            EventBus<Integer> plain = EventBus.blocking();
+            plain.consume(blackhole::consume);
+            emitter = plain;
+            return;
+        }
+        ReplayEventBus<Integer> replaying;
+        switch (bus) {
+            case "lastValue":
+                replaying = ReplayEventBus.lastValue(EventBus.DIRECT_EXECUTOR);
+                break;
+            case "replay":
+                replaying = ReplayEventBus.replay(EventBus.DIRECT_EXECUTOR, 1024);
+                break;
+            case "windowed":
+                replaying = ReplayEventBus.replay(EventBus.DIRECT_EXECUTOR, 1024, 1, TimeUnit.SECONDS);
+                break;
+            default:
+                throw new IllegalArgumentException(bus);
+        }
+        replaying.consume(blackhole::consume);
+        emitter = replaying;
+    }
+
+    @Benchmark
+    public void emit() {
+        emitter.emit(42);
+    }
+}
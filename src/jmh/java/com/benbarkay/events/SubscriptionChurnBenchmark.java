@@ -0,0 +1,42 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits to a blocking bus with a few long-lived subscribers while another thread
+ * keeps subscribing to and cancelling subscriptions of the same bus.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SubscriptionChurnBenchmark {
+
+    private EventBus<Integer> bus;
+    private EventSubscriber<Integer> subscriber;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        bus = EventBus.blocking();
+        subscriber = (e, s) -> blackhole.consume(e);
+        for (int i = 0; i < 8; i++) {
+            bus.subscribe(subscriber);
+        }
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(2)
+    public void emit() {
+        bus.emit(42);
+    }
+
+    @Benchmark
+    @Group("churn")
+    @GroupThreads(1)
+    public boolean subscribeAndCancel() {
+        return bus.subscribe(subscriber).cancel();
+    }
+}
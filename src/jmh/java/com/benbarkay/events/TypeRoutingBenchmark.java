@@ -0,0 +1,60 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emits to a bus with one tap per event type, comparing {@code filter(Class)} taps on a
+ * plain bus with the per-type sources of a {@link TypeRoutingEventBus}. Only one tap
+ * matches each event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TypeRoutingBenchmark {
+
+    /**
+     * Unrelated event types. Events are always integers, so the first tap is the only match.
+     */
+    private static final Class<?>[] TYPES = {
+            Integer.class, Long.class, Short.class, Byte.class, Double.class, Float.class,
+            String.class, Character.class, Boolean.class, StringBuilder.class
+    };
+
+    @Param({"1", "10"})
+    public int types;
+
+    private EventBus<Object> filtered;
+    private TypeRoutingEventBus<Object> routed;
+    private List<EventSource<?>> taps;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        filtered = EventBus.blocking();
+        routed = TypeRoutingEventBus.blocking();
+        taps = new ArrayList<>();
+        for (int i = 0; i < types; i++) {
+            EventSource<?> filteredTap = filtered.filter(TYPES[i]);
+            filteredTap.consume(blackhole::consume);
+            EventSource<?> routedTap = routed.filter(TYPES[i]);
+            routedTap.consume(blackhole::consume);
+            // Held so that the filter chains are not torn down by garbage collection.
+            taps.add(filteredTap);
+            taps.add(routedTap);
+        }
+    }
+
+    @Benchmark
+    public void filterTaps() {
+        filtered.emit(42);
+    }
+
+    @Benchmark
+    public void typeRouting() {
+        routed.emit(42);
+    }
+}
@@ -0,0 +1,68 @@
+package com.benbarkay.events;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers an event to subscribers which each block for a millisecond, either on a virtual
+ * thread per subscription or on a pool of as many platform threads as there are processors.
+ * Requires Java 21 or later for the virtual thread variant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VirtualThreadBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int subscribers;
+
+    @Param({"virtual", "platform"})
+    public String threads;
+
+    private ExecutorService pool;
+    private EventBus<Integer> bus;
+    private final AtomicReference<CountDownLatch> delivered = new AtomicReference<>();
+
+    @Setup
+    public void setUp() {
+        bus = EventBus.blocking();
+        EventSubscriber<Integer> subscriber = (e, s) -> {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            delivered.get().countDown();
+        };
+        if (threads.equals("virtual")) {
+            for (int i = 0; i < subscribers; i++) {
+                bus.subscribeOnVirtualThread(subscriber);
+            }
+        } else {
+            pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            for (int i = 0; i < subscribers; i++) {
+                bus.subscribe(subscriber, pool);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public void deliverToAll() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(subscribers);
+        delivered.set(latch);
+        bus.emit(42);
+        latch.await();
+    }
+}
@@ -1,5 +1,11 @@
 package com.benbarkay.events;
 
+/**
+ * Forwards events to an emitter which is only weakly referred to while it has no subscribers,
+ * and cancels its subscription once the emitter has been garbage collected. Derived sources
+ * unsubscribe as soon as their last subscription is cancelled, so this is only a fallback for
+ * recipients whose subscribers cannot be tracked, such as those of {@link EventSource#forward}.
+ */
 abstract class AbstractForwardingSubscriber<T, F> implements EventSubscriber<T> {
 
     private final VariableStrengthReference<EventEmitter<F>> emitterRef;
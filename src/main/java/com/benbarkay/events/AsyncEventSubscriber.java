@@ -0,0 +1,24 @@
+package com.benbarkay.events;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A subscriber which accepts events asynchronously, such as by making non-blocking calls.
+ * Events are handed to this subscriber as soon as it has room for them, without waiting
+ * for the stages returned for earlier events to complete, up to a limit of events in flight.
+ * See {@link EventSource#subscribeAsync(AsyncEventSubscriber, java.util.concurrent.Executor, int,
+ * CompletionOrder, int, OverflowPolicy)}.
+ * @param <T>   The type of events this subscriber handles.
+ */
+@FunctionalInterface
+public interface AsyncEventSubscriber<T> {
+    /**
+     * Starts accepting an event. This method should not block; exceptions it throws, as well as
+     * exceptional completion of the returned stage, are reported to the subscription's error handlers.
+     * @param event         The event to accept.
+     * @param subscription  The subscription which triggered the event.
+     * @return  A stage which completes once the event has been accepted, or {@code null}
+     *          if it was accepted synchronously.
+     */
+    CompletionStage<Void> accept(T event, EventSubscription subscription);
+}
@@ -0,0 +1,89 @@
+package com.benbarkay.events;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Adapts an {@link AsyncEventSubscriber} to an on-demand subscription. The subscription is
+ * given as much demand as the limit of events in flight, and each event stops counting against
+ * the limit, according to the completion order, by requesting demand for another. Events
+ * emitted in the meantime wait in the subscription's buffer.
+ * @param <T>   The type of events this subscriber handles.
+ */
+class AsyncSubscriberAdapter<T> implements EventSubscriber<T> {
+
+    private final AsyncEventSubscriber<T> subscriber;
+    private final CompletionOrder order;
+    // The events in flight, oldest first; only kept for ordered completion.
+    private final ArrayDeque<InFlight> inFlight;
+
+    AsyncSubscriberAdapter(AsyncEventSubscriber<T> subscriber, CompletionOrder order) {
+        this.subscriber = subscriber;
+        this.order = order;
+        inFlight = order == CompletionOrder.ORDERED ? new ArrayDeque<>() : null;
+    }
+
+    @Override
+    public void accept(T event, EventSubscription subscription) {
+        InFlight entry = null;
+        if (inFlight != null) {
+            entry = new InFlight();
+            synchronized (inFlight) {
+                inFlight.add(entry);
+            }
+        }
+        CompletionStage<Void> stage;
+        try {
+            stage = subscriber.accept(event, subscription);
+        } catch (Throwable t) {
+            completed(entry, subscription);
+            throw t;
+        }
+        if (stage == null) {
+            completed(entry, subscription);
+        } else {
+            InFlight completed = entry;
+            stage.whenComplete((result, failure) -> {
+                completed(completed, subscription);
+                if (failure != null) {
+                    fail(failure, subscription);
+                }
+            });
+        }
+    }
+
+    private void completed(InFlight entry, EventSubscription subscription) {
+        if (inFlight == null) {
+            subscription.request(1);
+            return;
+        }
+        int released = 0;
+        synchronized (inFlight) {
+            entry.completed = true;
+            while (!inFlight.isEmpty() && inFlight.peek().completed) {
+                inFlight.poll();
+                released++;
+            }
+        }
+        if (released > 0) {
+            subscription.request(released);
+        }
+    }
+
+    private static void fail(Throwable failure, EventSubscription subscription) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (subscription instanceof EventBusSubscription) {
+            ((EventBusSubscription<?>) subscription).fail(failure);
+        } else {
+            EventBus.DEFAULT_EXCEPTION_HANDLER.accept(failure);
+        }
+    }
+
+    private static class InFlight {
+        // Guarded by the deque of events in flight.
+        private boolean completed;
+    }
+}
@@ -0,0 +1,27 @@
+package com.benbarkay.events;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A subscriber which accepts events in batches. Batches emitted through
+ * {@link EventEmitter#emitAll(java.util.Collection)} are delivered to this subscriber
+ * with a single call, rather than one call per event.
+ * @param <T>   The type of events this subscriber handles.
+ */
+public interface BatchEventSubscriber<T> extends EventSubscriber<T> {
+    /**
+     * Accepts a batch of events.
+     * @param events        The events to accept, in the order they were emitted.
+     * @param subscription  The subscription which triggered the events.
+     */
+    void acceptAll(List<T> events, EventSubscription subscription);
+
+    /**
+     * Accepts a single event as a batch of one.
+     */
+    @Override
+    default void accept(T event, EventSubscription subscription) {
+        acceptAll(Collections.singletonList(event), subscription);
+    }
+}
@@ -0,0 +1,29 @@
+package com.benbarkay.events;
+
+import java.util.function.Function;
+
+/**
+ * A source of the events of a primitive source, converted to objects. Like other derived
+ * sources, it is only subscribed to the primitive source while it has subscribers: it
+ * connects once subscribed to, and disconnects as soon as its last subscription is cancelled.
+ * Converted events are emitted through a blocking {@link EventBus}, from which subscribers
+ * may hand them off to executors of their own.
+ *
+ * @param <T>   The type of events emitted by this source.
+ */
+class BoxingSource<T> extends DerivedSource<T, T> {
+
+    /**
+     * @param connector Subscribes to the primitive source, handing converted events to the
+     *                  specified subscriber, and returns the subscription.
+     */
+    BoxingSource(Function<EventSubscriber<T>, EventSubscription> connector) {
+        // Primitive sources deliver their events on the emitting threads.
+        super(connector, EventBus.DIRECT_EXECUTOR, EventBus.DIRECT_EXECUTOR, EventBus.blocking());
+    }
+
+    @Override
+    protected EventSubscriber<T> connected() {
+        return (event, subscription) -> recipient.emit(event);
+    }
+}
@@ -0,0 +1,239 @@
+package com.benbarkay.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A source of the events sent by an {@link EventBridge} in another process on the same host.
+ * Frames are received by a daemon thread of this source, started once this source is first
+ * subscribed to, and their events are deserialized and emitted, in the order they were sent,
+ * to subscribers on the executor of this source. Events received once all subscribers have
+ * unsubscribed are discarded.
+ *
+ * <p>Events which cannot be deserialized, along with failures to receive frames, are reported
+ * to the error handlers of this source.
+ *
+ * @param <T>   The type of bridged events.
+ */
+public class BridgedEventSource<T> implements EventSource<T>, Closeable {
+
+    /**
+     * Opens a source of a shared memory bridge with a ring of {@link EventBridge#DEFAULT_RING_SIZE} bytes.
+     * See {@link #sharedMemory(Path, int, EventCodec, Executor)}.
+     */
+    public static <T> BridgedEventSource<T> sharedMemory(Path file, EventCodec<T> codec, Executor executor)
+            throws IOException {
+        return sharedMemory(file, EventBridge.DEFAULT_RING_SIZE, codec, executor);
+    }
+
+    /**
+     * Opens a source of a bridge through a memory-mapped file, which is created if it does
+     * not exist. See {@link EventBridge#sharedMemory(Path, int, EventCodec, Executor)}.
+     * @param file      The file of the ring, which the sending process opens as well.
+     * @param ringSize  The size of the ring in bytes, which must match that of the sending process.
+     * @param codec     The codec with which events are deserialized.
+     * @param executor  The executor on which events are delivered.
+     */
+    public static <T> BridgedEventSource<T> sharedMemory(Path file, int ringSize, EventCodec<T> codec, Executor executor)
+            throws IOException {
+        SharedMemoryRing ring = SharedMemoryRing.receiver(file, ringSize);
+        BridgedEventSource<T> source = new BridgedEventSource<>(codec, executor, null);
+        source.start = () -> source.receive(ring);
+        return source;
+    }
+
+    /**
+     * Opens a source which listens on a socket for bridges to connect to, such as an address of
+     * the loopback interface. Events of each connected bridge are delivered in the order they
+     * were sent; events of different bridges are interleaved.
+     * @param address   The address to listen on, which may have a port of {@code 0} in order to
+     *                  listen on any free port; see {@link #address()}.
+     * @param codec     The codec with which events are deserialized.
+     * @param executor  The executor on which events are delivered.
+     */
+    public static <T> BridgedEventSource<T> listen(SocketAddress address, EventCodec<T> codec, Executor executor)
+            throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(address);
+        BridgedEventSource<T> source = new BridgedEventSource<>(codec, executor, server);
+        source.start = () -> start("event-bridge-acceptor", source::accept);
+        return source;
+    }
+
+    private final EventCodec<T> codec;
+    private final EventBus<T> recipient;
+    private final ServerSocketChannel server;
+    private final Set<FrameReceiver> receivers;
+    private final AtomicBoolean started;
+    private Runnable start;
+    private volatile boolean closed;
+
+    private BridgedEventSource(EventCodec<T> codec, Executor executor, ServerSocketChannel server) {
+        this.codec = codec;
+        this.server = server;
+        recipient = EventBus.create(executor);
+        receivers = ConcurrentHashMap.newKeySet();
+        started = new AtomicBoolean(false);
+    }
+
+    /**
+     * The address this source listens on, or {@code null} if it is not a socket bridge.
+     */
+    public SocketAddress address() throws IOException {
+        return server == null ? null : server.getLocalAddress();
+    }
+
+    @Override
+    public Executor executor() {
+        return recipient.executor();
+    }
+
+    @Override
+    public EventSubscription subscribe(EventSubscriber<T> subscriber, Executor executor) {
+        EventSubscription subscription = recipient.subscribe(subscriber, executor);
+        start();
+        return subscription;
+    }
+
+    @Override
+    public EventSubscription subscribe(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        EventSubscription subscription = recipient.subscribe(subscriber, executor, capacity, policy);
+        start();
+        return subscription;
+    }
+
+    @Override
+    public EventSubscription subscribeOnDemand(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        EventSubscription subscription = recipient.subscribeOnDemand(subscriber, executor, capacity, policy);
+        start();
+        return subscription;
+    }
+
+    @Override
+    public <K> EventSubscription subscribeConflating(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            Function<T, K> keyExtractor) {
+        EventSubscription subscription = recipient.subscribeConflating(subscriber, executor, keyExtractor);
+        start();
+        return subscription;
+    }
+
+    @Override
+    public <E extends Throwable> EventSource<T> error(Class<E> type, Consumer<E> consumer) {
+        recipient.error(type, consumer);
+        return this;
+    }
+
+    /**
+     * Stops receiving events, and closes the connections of all bridges.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (server != null) {
+            server.close();
+        }
+        for (FrameReceiver receiver : receivers) {
+            receiver.close();
+        }
+    }
+
+    private void start() {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            start.run();
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                SocketChannel channel = server.accept();
+                receive(new SocketFrameChannel(channel));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!closed) {
+                    recipient.error(e);
+                }
+            }
+        }
+    }
+
+    private void receive(FrameReceiver receiver) {
+        receivers.add(receiver);
+        if (closed) {
+            // Closed while starting, after all receivers were closed.
+            receivers.remove(receiver);
+            close(receiver);
+            return;
+        }
+        start("event-bridge-receiver", () -> {
+            try {
+                ByteBuffer frame;
+                while ((frame = receiver.receive()) != null) {
+                    emitAll(frame);
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    recipient.error(e);
+                }
+            } finally {
+                receivers.remove(receiver);
+                close(receiver);
+            }
+        });
+    }
+
+    private static void close(FrameReceiver receiver) {
+        try {
+            receiver.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Emits the events of a frame: their count, followed by each event's length and bytes.
+     */
+    private void emitAll(ByteBuffer frame) {
+        int count = frame.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] bytes = new byte[frame.getInt()];
+            frame.get(bytes);
+            T event;
+            try {
+                event = codec.decode(bytes);
+            } catch (RuntimeException e) {
+                recipient.error(e);
+                continue;
+            }
+            recipient.emit(event);
+        }
+    }
+
+    private static void start(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,18 @@
+package com.benbarkay.events;
+
+/**
+ * Determines when an event accepted by an {@link AsyncEventSubscriber} stops counting
+ * against the subscription's limit of events in flight.
+ */
+public enum CompletionOrder {
+    /**
+     * Once the event and all events before it have been accepted. The subscriber is never
+     * handed an event more than the limit ahead of the oldest event still in flight, so a
+     * limit of one accepts events one at a time, in order.
+     */
+    ORDERED,
+    /**
+     * As soon as the event has been accepted, regardless of earlier events.
+     */
+    UNORDERED
+}
@@ -0,0 +1,48 @@
+package com.benbarkay.events;
+
+import java.util.function.Consumer;
+
+/**
+ * A subscription made up of several subscriptions, which are handled as one.
+ */
+class CompositeSubscription implements EventSubscription {
+
+    private final EventSubscription[] subscriptions;
+
+    CompositeSubscription(EventSubscription[] subscriptions) {
+        this.subscriptions = subscriptions;
+    }
+
+    @Override
+    public <E extends Throwable> EventSubscription error(Class<E> type, Consumer<E> consumer) {
+        for (EventSubscription subscription : subscriptions) {
+            subscription.error(type, consumer);
+        }
+        return this;
+    }
+
+    @Override
+    public boolean cancel() {
+        boolean cancelled = false;
+        for (EventSubscription subscription : subscriptions) {
+            cancelled |= subscription.cancel();
+        }
+        return cancelled;
+    }
+
+    @Override
+    public void request(long n) {
+        for (EventSubscription subscription : subscriptions) {
+            subscription.request(n);
+        }
+    }
+
+    @Override
+    public int buffered() {
+        int buffered = 0;
+        for (EventSubscription subscription : subscriptions) {
+            buffered += subscription.buffered();
+        }
+        return buffered;
+    }
+}
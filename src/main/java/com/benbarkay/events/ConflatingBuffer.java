@@ -0,0 +1,139 @@
+package com.benbarkay.events;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * A buffer which holds at most one event per key, pending delivery to a subscription. An event
+ * emitted while another event of its key is pending replaces it, and is delivered in its place,
+ * so the buffer is bounded by the number of distinct keys rather than by the rate of events.
+ * Events of the same key are delivered in order; keys are delivered in the order their pending
+ * events were first buffered, so a key which is updated continuously is not starved.
+ *
+ * <p>Replaced events count as dropped by the subscription. Conflating buffers do not deliver
+ * on demand, and ignore requests.
+ *
+ * @param <K>   The type of keys.
+ * @param <T>   The type of buffered events.
+ */
+class ConflatingBuffer<K, T> implements EventBuffer<T> {
+
+    /**
+     * The number of events delivered by a single drain task before it yields the executor.
+     */
+    private static final int DRAIN_LIMIT = 256;
+
+    private final EventBusSubscription<T> subscription;
+    private final Executor queue;
+    private final Function<T, K> keyExtractor;
+    private final LinkedHashMap<K, Object> events;
+    private final boolean instrumented;
+    private final Runnable drain;
+    private boolean draining;
+
+    /**
+     * @param subscription  The subscription to deliver to.
+     * @param queue         The executor to deliver on.
+     * @param keyExtractor  Extracts the key of an event.
+     */
+    ConflatingBuffer(EventBusSubscription<T> subscription, Executor queue, Function<T, K> keyExtractor) {
+        this.subscription = subscription;
+        this.queue = queue;
+        this.keyExtractor = keyExtractor;
+        events = new LinkedHashMap<>();
+        instrumented = subscription.isInstrumented();
+        drain = this::drain;
+    }
+
+    @Override
+    public void offer(T event, EventTracer.Span span) {
+        K key = keyExtractor.apply(event);
+        // Instrumented buffers keep the time and span at which each event was buffered.
+        Object entry = instrumented ? new SubscriptionBuffer.Buffered<>(event, System.nanoTime(), span) : event;
+        Object replaced;
+        boolean schedule;
+        synchronized (events) {
+            // Replacing the value of a key keeps its position in the map.
+            replaced = events.put(key, entry);
+            schedule = !draining;
+            draining = true;
+        }
+        if (replaced != null) {
+            subscription.metrics().dropped(1);
+            release(replaced);
+        }
+        if (schedule) {
+            queue.execute(drain);
+        }
+    }
+
+    @Override
+    public void request(long n) {
+    }
+
+    @Override
+    public int size() {
+        synchronized (events) {
+            return events.size();
+        }
+    }
+
+    @Override
+    public int clear() {
+        synchronized (events) {
+            int discarded = events.size();
+            for (Object event : events.values()) {
+                release(event);
+            }
+            events.clear();
+            return discarded;
+        }
+    }
+
+    private void drain() {
+        for (int delivered = 0; ; delivered++) {
+            Object event;
+            synchronized (events) {
+                if (subscription.isCancelled() || events.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                if (delivered == DRAIN_LIMIT && queue != EventBus.DIRECT_EXECUTOR) {
+                    // Yield the executor to other tasks, and continue in a new task.
+                    break;
+                }
+                Iterator<Map.Entry<K, Object>> iterator = events.entrySet().iterator();
+                event = iterator.next().getValue();
+                iterator.remove();
+            }
+            if (instrumented) {
+                SubscriptionBuffer.Buffered<T> buffered = buffered(event);
+                subscription.deliver(buffered.event, buffered.time, buffered.span);
+            } else {
+                subscription.deliver(plain(event), 0, null);
+            }
+        }
+        queue.execute(drain);
+    }
+
+    private void release(Object event) {
+        subscription.release(instrumented ? buffered(event).event : plain(event));
+    }
+
+    /**
+     * Buffers of instrumented subscriptions hold {@link SubscriptionBuffer.Buffered} events,
+     * and other buffers hold the events themselves.
+     */
+    @SuppressWarnings("unchecked")
+    private SubscriptionBuffer.Buffered<T> buffered(Object event) {
+        return (SubscriptionBuffer.Buffered<T>) event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T plain(Object event) {
+        return (T) event;
+    }
+}
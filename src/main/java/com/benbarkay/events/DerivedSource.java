@@ -0,0 +1,160 @@
+package com.benbarkay.events;
+
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A source whose events are derived from those of an upstream source, and emitted to
+ * subscribers through a bus of its own. The upstream subscription is only made while this
+ * source has subscribers: it is made once this source is subscribed to, and cancelled as soon
+ * as the last subscription of this source is cancelled. Upstream sources other than event
+ * sources, such as primitive sources, are subscribed to through a connector function.
+ *
+ * @param <S>   The type of events emitted by the upstream source.
+ * @param <T>   The type of events emitted by this source.
+ */
+abstract class DerivedSource<S, T> implements EventSource<T> {
+
+    protected final EventBus<T> recipient;
+    private final Function<EventSubscriber<S>, EventSubscription> connector;
+    private final Executor executor;
+    private final Executor stageExecutor;
+    private volatile EventSubscription connection;
+    private EventSubscriber<S> subscriber;
+
+    /**
+     * @param upstream          The source to derive events from.
+     * @param upstreamExecutor  The executor on which upstream events are accepted.
+     * @param recipient         The bus to which derived events are emitted.
+     */
+    DerivedSource(EventSource<S> upstream, Executor upstreamExecutor, EventBus<T> recipient) {
+        this(
+                subscriber -> upstream.subscribe(subscriber, upstreamExecutor),
+                upstream.executor(),
+                // Stages accepted inline run wherever upstream events are delivered.
+                upstreamExecutor == EventBus.DIRECT_EXECUTOR ? upstream.executor() : upstreamExecutor,
+                recipient);
+    }
+
+    /**
+     * @param connector     Subscribes the specified subscriber upstream, and returns the subscription.
+     * @param executor      The executor of this source.
+     * @param stageExecutor The executor on which upstream events are accepted, or
+     *                      {@link EventBus#DIRECT_EXECUTOR} if they are accepted by emitting threads.
+     * @param recipient     The bus to which derived events are emitted.
+     */
+    DerivedSource(
+            Function<EventSubscriber<S>, EventSubscription> connector,
+            Executor executor,
+            Executor stageExecutor,
+            EventBus<T> recipient) {
+        this.connector = connector;
+        this.executor = executor;
+        this.stageExecutor = stageExecutor;
+        this.recipient = recipient;
+        recipient.onLastUnsubscribe(this::disconnect);
+    }
+
+    /**
+     * Creates the subscriber to upstream events, whenever this source connects.
+     */
+    protected abstract EventSubscriber<S> connected();
+
+    /**
+     * Called once this source has disconnected, with the subscriber it disconnected.
+     */
+    protected void disconnected(EventSubscriber<S> subscriber) {
+    }
+
+    @Override
+    public Executor executor() {
+        return executor;
+    }
+
+    @Override
+    public EventSubscription subscribe(EventSubscriber<T> subscriber, Executor executor) {
+        EventSubscription subscription = recipient.subscribe(subscriber, executor);
+        connect();
+        return subscription;
+    }
+
+    @Override
+    public EventSubscription subscribe(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        checkBlocking(executor, policy);
+        EventSubscription subscription = recipient.subscribe(subscriber, executor, capacity, policy);
+        connect();
+        return subscription;
+    }
+
+    @Override
+    public EventSubscription subscribeOnDemand(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        checkBlocking(executor, policy);
+        EventSubscription subscription = recipient.subscribeOnDemand(subscriber, executor, capacity, policy);
+        connect();
+        return subscription;
+    }
+
+    @Override
+    public <K> EventSubscription subscribeConflating(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            Function<T, K> keyExtractor) {
+        EventSubscription subscription = recipient.subscribeConflating(subscriber, executor, keyExtractor);
+        connect();
+        return subscription;
+    }
+
+    @Override
+    public <E extends Throwable> EventSource<T> error(Class<E> type, Consumer<E> consumer) {
+        recipient.error(type, consumer);
+        return this;
+    }
+
+    /**
+     * Stages emit to the recipient, so {@link OverflowPolicy#BLOCK} subscriptions wait for room on
+     * the thread of the stage. Room is made by the executor of the recipient, which dispatches the
+     * events, and by that of the subscription, which delivers them; a stage running on either
+     * could end up waiting on itself.
+     */
+    private void checkBlocking(Executor subscriptionExecutor, OverflowPolicy policy) {
+        if (policy != OverflowPolicy.BLOCK) {
+            return;
+        }
+        if (stageExecutor != EventBus.DIRECT_EXECUTOR
+                && (stageExecutor == recipient.executor() || stageExecutor == subscriptionExecutor)) {
+            throw new IllegalArgumentException(
+                    "blocking subscriptions wait on the executor of the stages of this source, "
+                            + "which must differ from the executors delivering to them");
+        }
+    }
+
+    boolean isConnected() {
+        return connection != null;
+    }
+
+    private synchronized void connect() {
+        // Subscriptions may have been cancelled again by the time this source connects.
+        if (connection == null && recipient.hasSubscribers()) {
+            subscriber = connected();
+            connection = connector.apply(subscriber).error(recipient::error);
+        }
+    }
+
+    private synchronized void disconnect() {
+        if (connection != null && !recipient.hasSubscribers()) {
+            connection.cancel();
+            connection = null;
+            disconnected(subscriber);
+            subscriber = null;
+        }
+    }
+}
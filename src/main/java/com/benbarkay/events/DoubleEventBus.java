@@ -0,0 +1,55 @@
+package com.benbarkay.events;
+
+import java.util.function.Consumer;
+
+/**
+ * A bus of {@code double} events, which are delivered to subscribers on the emitting thread
+ * without boxing them or allocating. See {@link DoubleEventSource}.
+ *
+ * <p>Subscribers are delivered to in the order they subscribed. Exceptions thrown by a
+ * subscriber are reported to the error handlers of its subscription, and otherwise to
+ * those of this bus.
+ */
+public class DoubleEventBus extends PrimitiveEventBus<DoubleEventSubscriber> implements DoubleEventSource, DoubleEventEmitter {
+
+    public static DoubleEventBus create() {
+        return new DoubleEventBus();
+    }
+
+    private DoubleEventBus() {
+    }
+
+    @Override
+    public EventSubscription subscribe(DoubleEventSubscriber subscriber) {
+        return add(subscriber);
+    }
+
+    /**
+     * Adds an error handler to this bus. See {@link EventSource#error(Class, Consumer)}.
+     */
+    public <E extends Throwable> DoubleEventBus error(Class<E> type, Consumer<E> consumer) {
+        addErrorHandler(type, consumer);
+        return this;
+    }
+
+    /**
+     * Adds a catch-all error handler to this bus.
+     */
+    public DoubleEventBus error(Consumer<Throwable> consumer) {
+        return error(Throwable.class, consumer);
+    }
+
+    @Override
+    public void emit(double event) {
+        for (Subscription<DoubleEventSubscriber> subscription : subscriptions()) {
+            if (subscription.isCancelled()) {
+                continue;
+            }
+            try {
+                subscription.subscriber.accept(event, subscription);
+            } catch (Throwable t) {
+                subscription.fail(t);
+            }
+        }
+    }
+}
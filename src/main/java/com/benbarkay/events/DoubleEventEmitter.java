@@ -0,0 +1,27 @@
+package com.benbarkay.events;
+
+/**
+ * Facilitates the emission of {@code double} events, without boxing them.
+ * See {@link EventEmitter}.
+ */
+public interface DoubleEventEmitter {
+
+    /**
+     * Emits the specified event to subscribers.
+     *
+     * @param event The event to emit.
+     */
+    void emit(double event);
+
+    /**
+     * Emits the specified error to subscribers.
+     *
+     * @param t The throwable to emit.
+     */
+    void error(Throwable t);
+
+    /**
+     * Whether or not this emitter has any subscribers.
+     */
+    boolean hasSubscribers();
+}
@@ -0,0 +1,15 @@
+package com.benbarkay.events;
+
+/**
+ * A subscriber to {@code double} events. See {@link DoubleEventSource}.
+ */
+@FunctionalInterface
+public interface DoubleEventSubscriber {
+
+    /**
+     * Accepts an event.
+     * @param event         The event to accept.
+     * @param subscription  The subscription which triggered the event.
+     */
+    void accept(double event, EventSubscription subscription);
+}
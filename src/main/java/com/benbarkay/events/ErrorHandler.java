@@ -1,11 +1,19 @@
 package com.benbarkay.events;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 class ErrorHandler {
-    private final Map<Class<? extends Throwable>, Consumer<Throwable>> errorConsumers;
+    /**
+     * Cached for throwable types which have no registered consumer.
+     */
+    private static final Consumer<Throwable> UNREGISTERED = (t) -> {};
+
+    private final AtomicReference<Registrations> registrations;
     private final ErrorHandler parent;
     private final Consumer<Throwable> defaultHandler;
 
@@ -18,7 +26,7 @@ class ErrorHandler {
     }
 
     private ErrorHandler(ErrorHandler parent, Consumer<Throwable> defaultHandler) {
-        this.errorConsumers = new HashMap<>();
+        this.registrations = new AtomicReference<>(new Registrations(Collections.emptyMap()));
         this.parent = parent;
         this.defaultHandler = defaultHandler;
     }
@@ -28,13 +36,10 @@ class ErrorHandler {
     }
 
     public void error(Throwable t) {
-        Consumer<Throwable> consumer = new TypeReflection(t.getClass())
-                .getAssignableTypes()
-                .stream()
-                .filter(errorConsumers::containsKey)
-                .map(errorConsumers::get)
-                .findFirst()
-                .orElse(defaultHandler);
+        Consumer<Throwable> consumer = registrations.get().resolve(t.getClass());
+        if (consumer == UNREGISTERED) {
+            consumer = defaultHandler;
+        }
 
         if (consumer != null) {
             consumer.accept(t);
@@ -46,7 +51,51 @@ class ErrorHandler {
     }
 
     public <T extends Throwable> void error(Class<T> type, Consumer<T> consumer) {
-        //noinspection unchecked
-        errorConsumers.put(type, (Consumer<Throwable>)consumer);
+        // Registrations are replaced rather than modified, so that errors may be
+        // dispatched concurrently without locking.
+        Registrations current;
+        Registrations updated;
+        do {
+            current = registrations.get();
+            Map<Class<?>, Consumer<Throwable>> consumers = new HashMap<>(current.consumers);
+            //noinspection unchecked
+            consumers.put(type, (Consumer<Throwable>)consumer);
+            updated = new Registrations(consumers);
+        } while (!registrations.compareAndSet(current, updated));
+    }
+
+    /**
+     * An immutable set of registered consumers, along with the consumers resolved from them
+     * for each throwable type. A new instance is created for every registration, which
+     * discards the previously resolved consumers.
+     */
+    private static class Registrations {
+        private final Map<Class<?>, Consumer<Throwable>> consumers;
+        private final Map<Class<?>, Consumer<Throwable>> resolved;
+
+        Registrations(Map<Class<?>, Consumer<Throwable>> consumers) {
+            this.consumers = consumers;
+            this.resolved = new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Resolves the consumer registered for the most specific type the specified throwable
+         * type is assignable to, or {@link #UNREGISTERED} if there is none.
+         */
+        Consumer<Throwable> resolve(Class<?> type) {
+            Consumer<Throwable> consumer = resolved.get(type);
+            if (consumer == null) {
+                consumer = UNREGISTERED;
+                for (Class<?> assignable : TypeReflection.assignableTypes(type)) {
+                    Consumer<Throwable> registered = consumers.get(assignable);
+                    if (registered != null) {
+                        consumer = registered;
+                        break;
+                    }
+                }
+                resolved.put(type, consumer);
+            }
+            return consumer;
+        }
     }
 }
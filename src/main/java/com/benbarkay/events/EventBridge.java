@@ -0,0 +1,264 @@
+package com.benbarkay.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * An emitter which mirrors events into another process on the same host, where they are
+ * emitted by a {@link BridgedEventSource}. Forward a source to a bridge in order to mirror it:
+ * <pre>{@code
+ * EventBridge<String> bridge = EventBridge.sharedMemory(file, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR);
+ * bus.forward(bridge);
+ * }</pre>
+ *
+ * <p>Events are serialized by the emitting thread, and sent in frames by a single task at a
+ * time on the executor of the bridge. Events emitted while a frame is being sent are batched
+ * into the next frame, so a busy bridge sends fewer, larger frames, while an idle bridge sends
+ * each event as soon as it is emitted. At most {@link #MAX_PENDING} events wait to be sent;
+ * emitting blocks once they do, as does sending while the receiving process falls behind.
+ *
+ * <p>Errors are not bridged. Errors emitted to a bridge, along with failures to send frames,
+ * are reported to the failure handler of the bridge; events of frames which failed to be sent
+ * are lost.
+ *
+ * @param <T>   The type of bridged events.
+ */
+public class EventBridge<T> implements EventEmitter<T>, Closeable {
+
+    /**
+     * The default size of the ring of a shared memory bridge, in bytes.
+     */
+    public static final int DEFAULT_RING_SIZE = 4 << 20;
+
+    /**
+     * The maximum number of events waiting to be sent.
+     */
+    public static final int MAX_PENDING = 8192;
+
+    /**
+     * Opens a bridge through a shared memory ring of {@link #DEFAULT_RING_SIZE} bytes.
+     * See {@link #sharedMemory(Path, int, EventCodec, Executor)}.
+     */
+    public static <T> EventBridge<T> sharedMemory(Path file, EventCodec<T> codec, Executor executor)
+            throws IOException {
+        return sharedMemory(file, DEFAULT_RING_SIZE, codec, executor);
+    }
+
+    /**
+     * Opens a bridge through a memory-mapped file, which is created if it does not exist.
+     * This is the fastest transport, and events survive a restart of either process: events
+     * sent while the receiving process is down are delivered once it opens the same file.
+     * A ring has a single sender; bridges of several processes require a file each.
+     * @param file      The file of the ring, which the receiving process opens as well.
+     * @param ringSize  The size of the ring in bytes, which bounds the size of frames. The
+     *                  receiving process must use the same size.
+     * @param codec     The codec with which events are serialized.
+     * @param executor  The executor on which frames are sent, such as
+     *                  {@link EventBus#DIRECT_EXECUTOR} in order to send them on emitting threads.
+     */
+    public static <T> EventBridge<T> sharedMemory(Path file, int ringSize, EventCodec<T> codec, Executor executor)
+            throws IOException {
+        return new EventBridge<>(SharedMemoryRing.sender(file, ringSize), codec, executor);
+    }
+
+    /**
+     * Opens a bridge through a socket connected to a listening {@link BridgedEventSource},
+     * typically on the loopback interface. Several bridges may connect to the same source.
+     * Events sent while the receiving process is down are lost.
+     * @param address   The address the receiving source listens on.
+     * @param codec     The codec with which events are serialized.
+     * @param executor  The executor on which frames are sent.
+     */
+    public static <T> EventBridge<T> connect(SocketAddress address, EventCodec<T> codec, Executor executor)
+            throws IOException {
+        return new EventBridge<>(SocketFrameChannel.connect(address), codec, executor);
+    }
+
+    /**
+     * The size of frames beyond which no more events are batched into them.
+     */
+    private static final int BATCH_SIZE = 64 << 10;
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final FrameSender sender;
+    private final EventCodec<T> codec;
+    private final Executor executor;
+    private final ArrayDeque<byte[]> pending;
+    private final ReentrantLock lock;
+    private final Condition notFull;
+    private final Condition idle;
+    private final Runnable drain;
+    private final int batchSize;
+    private volatile Consumer<Throwable> failureHandler;
+    private ByteBuffer frame;
+    private boolean draining;
+    private boolean closed;
+
+    EventBridge(FrameSender sender, EventCodec<T> codec, Executor executor) {
+        this.sender = sender;
+        this.codec = codec;
+        this.executor = executor;
+        pending = new ArrayDeque<>();
+        lock = new ReentrantLock();
+        notFull = lock.newCondition();
+        idle = lock.newCondition();
+        drain = this::drain;
+        failureHandler = EventBus.DEFAULT_EXCEPTION_HANDLER;
+        batchSize = Math.min(BATCH_SIZE, sender.maxFrameSize());
+        frame = ByteBuffer.allocate(batchSize);
+    }
+
+    /**
+     * Serializes an event, and sends it to the receiving process.
+     * @throws IllegalArgumentException If the serialized event does not fit in a frame.
+     * @throws IllegalStateException    If this bridge is closed.
+     */
+    @Override
+    public void emit(T event) {
+        byte[] bytes = codec.encode(event);
+        if (8 + bytes.length > sender.maxFrameSize()) {
+            throw new IllegalArgumentException(
+                    "event of " + bytes.length + " bytes does not fit in a frame of " + sender.maxFrameSize() + " bytes");
+        }
+        lock.lock();
+        try {
+            while (pending.size() >= MAX_PENDING && !closed) {
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                throw new IllegalStateException("bridge is closed");
+            }
+            pending.add(bytes);
+            if (draining) {
+                return;
+            }
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+        executor.execute(drain);
+    }
+
+    /**
+     * Reports the error to the failure handler of this bridge; errors are not bridged.
+     */
+    @Override
+    public void error(Throwable t) {
+        failureHandler.accept(t);
+    }
+
+    /**
+     * Whether this bridge is open. The subscribers of the receiving process are not known.
+     */
+    @Override
+    public boolean hasSubscribers() {
+        lock.lock();
+        try {
+            return !closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the handler of errors emitted to this bridge, and of failures to send frames.
+     * By default, they are printed to the standard error stream.
+     */
+    public EventBridge<T> onFailure(Consumer<Throwable> handler) {
+        failureHandler = handler;
+        return this;
+    }
+
+    /**
+     * Waits up to five seconds for pending events to be sent, and closes this bridge.
+     * See {@link #close(long, TimeUnit)}.
+     */
+    @Override
+    public void close() throws IOException {
+        close(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Waits for pending events to be sent, and closes this bridge. Sending waits while the
+     * receiving process falls behind, and does so indefinitely while it is down; once the
+     * timeout elapses, the transport is closed regardless, and the events which were not sent
+     * are reported to the failure handler as failures to send their frames.
+     * @param timeout   The maximum time to wait for pending events to be sent.
+     * @param unit      The unit of {@code timeout}.
+     */
+    public void close(long timeout, TimeUnit unit) throws IOException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+            long remaining;
+            while (draining && (remaining = deadline - System.nanoTime()) > 0) {
+                idle.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        sender.close();
+    }
+
+    private void drain() {
+        while (true) {
+            lock.lock();
+            try {
+                if (pending.isEmpty()) {
+                    draining = false;
+                    idle.signalAll();
+                    return;
+                }
+                batch();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                sender.send(frame);
+            } catch (IOException | RuntimeException e) {
+                failureHandler.accept(e);
+            }
+        }
+    }
+
+    /**
+     * Writes pending events into the frame: their count, followed by each event's length and bytes.
+     */
+    private void batch() {
+        frame.clear();
+        frame.putInt(0);
+        int count = 0;
+        byte[] bytes;
+        while ((bytes = pending.peek()) != null) {
+            if (count > 0 && frame.position() + 4 + bytes.length > batchSize) {
+                break;
+            }
+            if (frame.remaining() < 4 + bytes.length) {
+                // An event larger than the batch size is sent in a frame of its own.
+                frame = ByteBuffer.allocate(8 + bytes.length);
+                frame.putInt(0);
+            }
+            pending.poll();
+            frame.putInt(bytes.length);
+            frame.put(bytes);
+            count++;
+        }
+        frame.putInt(0, count);
+        frame.flip();
+    }
+}
@@ -0,0 +1,48 @@
+package com.benbarkay.events;
+
+/**
+ * Events pending delivery to a subscription, which are delivered by a single task at a time
+ * on the subscription's executor. See {@link SubscriptionBuffer} and {@link ConflatingBuffer}.
+ * @param <T>   The type of buffered events.
+ */
+interface EventBuffer<T> {
+
+    /**
+     * Buffers an event, and schedules its delivery.
+     * @param event The event to buffer.
+     * @param span  The span of the event's emission, if the subscription is traced.
+     */
+    void offer(T event, EventTracer.Span span);
+
+    /**
+     * Whether this buffer reserves room for events on the emitting thread, before they are
+     * dispatched. See {@link #reserve(int)}.
+     */
+    default boolean reserves() {
+        return false;
+    }
+
+    /**
+     * Waits until there is room for {@code count} more events, and reserves it for them. Called on
+     * the emitting thread before the events are queued on the executor of the bus, so that events
+     * waiting to be dispatched are accounted for along with the buffered ones.
+     */
+    default void reserve(int count) {
+    }
+
+    /**
+     * Adds demand for {@code n} more events, if this buffer delivers on demand.
+     */
+    void request(long n);
+
+    /**
+     * The number of buffered events.
+     */
+    int size();
+
+    /**
+     * Discards all buffered events.
+     * @return  The number of discarded events.
+     */
+    int clear();
+}
@@ -1,31 +1,138 @@
 package com.benbarkay.events;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 public class EventBus<T> implements EventSource<T>, EventEmitter<T> {
 
     public static <T> EventBus<T> create(Executor executor) {
-        return new EventBus<>(executor);
+        return new EventBus<>(executor, EventBusMetrics.NONE, null, 0, false, false);
+    }
+
+    /**
+     * Creates a bus which reports its activity, and that of its subscriptions, to the
+     * specified metrics. See {@link EventBusMetrics}.
+     * @param executor  The executor of the bus.
+     * @param metrics   The metrics to report to.
+     */
+    public static <T> EventBus<T> create(Executor executor, EventBusMetrics metrics) {
+        return new EventBus<>(executor, metrics, null, 0, false, false);
+    }
+
+    /**
+     * Creates a bus which hands each event to its subscriptions in parallel, for buses with
+     * large numbers of subscribers. Subscriptions are split into chunks of at most
+     * {@code chunkSize}, which are delivered to by the workers of the specified pool; buses
+     * with no more than {@code chunkSize} subscriptions deliver serially, as other buses do.
+     *
+     * <p>Each event is dispatched once it was handed to all subscriptions, so subscriptions
+     * receive events in order as long as the executor of the bus dispatches one event at a
+     * time, as {@link #blocking()} buses emitting from a single thread and
+     * {@link #ringBuffer(int, RingBufferExecutor.WaitStrategy)} buses do. Subscribers with
+     * executors of their own are only handed their events in parallel.
+     * @param executor  The executor of the bus.
+     * @param pool      The pool on which chunks of subscriptions are delivered to.
+     * @param chunkSize The maximum number of subscriptions delivered to by a single task.
+     */
+    public static <T> EventBus<T> parallel(Executor executor, ForkJoinPool pool, int chunkSize) {
+        return new EventBus<>(executor, EventBusMetrics.NONE, pool, chunkSize, false, false);
+    }
+
+    /**
+     * Creates a bus of pooled events, which are returned to their pool once every subscription
+     * has processed them. See {@link PooledEvent} and {@link EventPool}. Events emitted to the
+     * bus must not be used by the emitter afterwards.
+     *
+     * <p>Events are only valid while subscribers accept them. Derived sources such as
+     * {@code filter} emit the events themselves to their subscribers, which may only accept
+     * them in time on the thread of the stage; subscribers on executors of their own must
+     * not use them without retaining them. Derived sources which map events to other
+     * objects are unaffected.
+     * @param executor  The executor of the bus.
+     */
+    public static <T extends PooledEvent> EventBus<T> pooled(Executor executor) {
+        return new EventBus<>(executor, EventBusMetrics.NONE, null, 0, true, false);
+    }
+
+    /**
+     * Creates a bus whose events are published into a pre-allocated ring buffer and
+     * delivered in order by a single dedicated thread. See {@link RingBufferExecutor}.
+     * The thread keeps running until the bus is shut down with {@link #shutdown()}.
+     * @param capacity      The number of slots in the ring. Must be a power of two.
+     * @param waitStrategy  The strategy to use when waiting on the ring.
+     */
+    public static <T> EventBus<T> ringBuffer(int capacity, RingBufferExecutor.WaitStrategy waitStrategy) {
+        RingBufferExecutor ring = new RingBufferExecutor(capacity, waitStrategy);
+        return new EventBus<>(ring, EventBusMetrics.NONE, null, 0, false, true);
     }
 
     public static <T> EventBus<T> blocking() {
-        return new EventBus<>(Runnable::run);
+        return new EventBus<>(DIRECT_EXECUTOR, EventBusMetrics.NONE, null, 0, false, false);
     }
 
-    private static final Consumer<Throwable> DEFAULT_EXCEPTION_HANDLER = (t) -> new RuntimeException(
+    /**
+     * Creates a blocking bus which reports to the specified metrics.
+     * See {@link #create(Executor, EventBusMetrics)}.
+     */
+    public static <T> EventBus<T> blocking(EventBusMetrics metrics) {
+        return new EventBus<>(DIRECT_EXECUTOR, metrics, null, 0, false, false);
+    }
+
+    /**
+     * Executes tasks on the calling thread. Buses and subscriptions using this
+     * executor deliver events inline, without submitting a task per event.
+     */
+    static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    static final Consumer<Throwable> DEFAULT_EXCEPTION_HANDLER = (t) -> new RuntimeException(
             "Uncaught exception: " + t.getMessage(), t)
             .printStackTrace();
 
+    private static final EventBusSubscription<?>[] NO_SUBSCRIPTIONS = new EventBusSubscription<?>[0];
+
     private final Executor queue;
-    private final List<EventBusSubscription<T>> subscriptions;
+    private final RingBufferExecutor ring;
+    private final Consumer<T> dispatcher;
+    private final Consumer<List<T>> batchDispatcher;
+    private final AtomicReference<EventBusSubscription<T>[]> subscriptions;
+    private final AtomicInteger reserving;
     private final ErrorHandler errorHandler;
+    private final EventBusMetrics metrics;
+    private final EventTracer tracer;
+    private final boolean traced;
+    private final ParallelFanOut fanOut;
+    private final boolean pooled;
+    private final boolean ownsRing;
+    private volatile Runnable lastUnsubscribeHook;
 
-    private EventBus(Executor queue) {
+    private EventBus(
+            Executor queue,
+            EventBusMetrics metrics,
+            ForkJoinPool pool,
+            int chunkSize,
+            boolean pooled,
+            boolean ownsRing) {
         this.queue = queue;
-        subscriptions = new ArrayList<>();
+        this.metrics = metrics;
+        tracer = EventTracing.tracer();
+        traced = tracer != EventTracer.NONE;
+        fanOut = pool == null ? null : new ParallelFanOut(pool, chunkSize, tracer);
+        this.pooled = pooled;
+        ring = queue instanceof RingBufferExecutor ? (RingBufferExecutor) queue : null;
+        this.ownsRing = ownsRing;
+        dispatcher = this::dispatch;
+        batchDispatcher = this::dispatchAll;
+        subscriptions = new AtomicReference<>(noSubscriptions());
+        reserving = new AtomicInteger();
         errorHandler = new ErrorHandler(DEFAULT_EXCEPTION_HANDLER);
     }
 
@@ -34,6 +141,18 @@ public class EventBus<T> implements EventSource<T>, EventEmitter<T> {
         return queue;
     }
 
+    /**
+     * Shuts down the ring buffer of a bus created by {@link #ringBuffer(int, RingBufferExecutor.WaitStrategy)}.
+     * Events already emitted are delivered before its thread exits, and emitting afterwards throws
+     * a {@link java.util.concurrent.RejectedExecutionException}. Buses created on an executor
+     * of their caller leave it to the caller to shut down, and are unaffected.
+     */
+    public void shutdown() {
+        if (ownsRing) {
+            ring.shutdown();
+        }
+    }
+
     @Override
     public EventSubscription subscribe(EventSubscriber<T> subscriber, Executor executor) {
         EventBusSubscription<T> subscription = new EventBusSubscription<>(
@@ -41,7 +160,40 @@ public class EventBus<T> implements EventSource<T>, EventEmitter<T> {
                 executor,
                 this,
                 errorHandler.forkChild());
-        queue.execute(() -> subscribe(subscription));
+        subscribe(subscription);
+        return subscription;
+    }
+
+    @Override
+    public EventSubscription subscribe(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        return subscribeBounded(subscriber, executor, capacity, policy, Long.MAX_VALUE);
+    }
+
+    @Override
+    public EventSubscription subscribeOnDemand(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        return subscribeBounded(subscriber, executor, capacity, policy, 0);
+    }
+
+    @Override
+    public <K> EventSubscription subscribeConflating(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            Function<T, K> keyExtractor) {
+        EventBusSubscription<T> subscription = new EventBusSubscription<>(
+                subscriber,
+                executor,
+                this,
+                errorHandler.forkChild(),
+                s -> new ConflatingBuffer<>(s, executor, keyExtractor));
+        subscribe(subscription);
         return subscription;
     }
 
@@ -53,7 +205,49 @@ public class EventBus<T> implements EventSource<T>, EventEmitter<T> {
 
     @Override
     public void emit(T event) {
-        queue.execute(() -> new ArrayList<>(subscriptions).forEach(s -> s.emit(event)));
+        if (pooled) {
+            ((PooledEvent) event).checkEmittable();
+        }
+        metrics.emitted(1);
+        if (reserving.get() > 0) {
+            reserve(1);
+        }
+        if (traced) {
+            traced(() -> dispatch(event));
+        } else if (queue == DIRECT_EXECUTOR) {
+            dispatch(event);
+        } else if (ring != null) {
+            ring.publish(dispatcher, event);
+        } else {
+            queue.execute(() -> dispatch(event));
+        }
+    }
+
+    @Override
+    public void emitAll(Collection<T> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        // Subscribers may process the batch asynchronously, so they are handed a copy.
+        List<T> batch = Collections.unmodifiableList(new ArrayList<>(events));
+        if (pooled) {
+            for (T event : batch) {
+                ((PooledEvent) event).checkEmittable();
+            }
+        }
+        metrics.emitted(batch.size());
+        if (reserving.get() > 0) {
+            reserve(batch.size());
+        }
+        if (traced) {
+            traced(() -> dispatchAll(batch));
+        } else if (queue == DIRECT_EXECUTOR) {
+            dispatchAll(batch);
+        } else if (ring != null) {
+            ring.publish(batchDispatcher, batch);
+        } else {
+            queue.execute(() -> dispatchAll(batch));
+        }
     }
 
     @Override
@@ -63,14 +257,180 @@ public class EventBus<T> implements EventSource<T>, EventEmitter<T> {
 
     @Override
     public boolean hasSubscribers() {
-        return subscriptions.size() > 0;
+        return subscriptions.get().length > 0;
+    }
+
+    EventBusMetrics metrics() {
+        return metrics;
+    }
+
+    EventTracer tracer() {
+        return tracer;
+    }
+
+    /**
+     * Whether events of this bus are {@link PooledEvent}s, which subscriptions release
+     * once they have delivered or discarded them.
+     */
+    boolean isPooled() {
+        return pooled;
+    }
+
+    /**
+     * Sets a hook which is run whenever the last subscription of this bus is removed, on the
+     * thread removing it. Subscriptions may be added again concurrently, so the hook should
+     * check {@link #hasSubscribers()} under its own synchronization before acting on it.
+     * @param hook  The hook to run, replacing any previously set hook.
+     */
+    void onLastUnsubscribe(Runnable hook) {
+        lastUnsubscribeHook = hook;
+    }
+
+    /**
+     * Dispatches within an {@code emit} span, child of the span current on the emitting thread.
+     * Subscriptions capture the span while it is current, and deliver within spans of their own.
+     */
+    private void traced(Runnable dispatch) {
+        EventTracer.Span span = tracer.start("emit", tracer.current());
+        queue.execute(() -> {
+            EventTracer.Span previous = tracer.attach(span);
+            try {
+                dispatch.run();
+            } finally {
+                tracer.attach(previous);
+                span.end();
+            }
+        });
+    }
+
+    private EventSubscription subscribeBounded(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy,
+            long demand) {
+        EventBusSubscription<T> subscription = new EventBusSubscription<>(
+                subscriber,
+                executor,
+                this,
+                errorHandler.forkChild(),
+                capacity,
+                policy,
+                demand);
+        subscribe(subscription);
+        return subscription;
+    }
+
+    /**
+     * Waits for room in the buffers of {@link OverflowPolicy#BLOCK} subscriptions, on the emitting
+     * thread, before the events are queued on the executor of this bus.
+     */
+    private void reserve(int count) {
+        for (EventBusSubscription<T> subscription : subscriptions.get()) {
+            if (subscription.reserves()) {
+                subscription.reserve(count);
+            }
+        }
+    }
+
+    private void dispatch(T event) {
+        // The array is never mutated once published, so iterating over it
+        // is safe even while subscriptions are being added or removed.
+        EventBusSubscription<T>[] subscriptions = this.subscriptions.get();
+        if (pooled) {
+            // A reference per subscription, taken before any of them may release theirs.
+            ((PooledEvent) event).retain(subscriptions.length);
+        }
+        try {
+            if (fanOut != null) {
+                fanOut.emit(subscriptions, event);
+                return;
+            }
+            for (EventBusSubscription<T> subscription : subscriptions) {
+                subscription.emit(event);
+            }
+        } finally {
+            if (pooled) {
+                // The reference of the emitter.
+                ((PooledEvent) event).release();
+            }
+        }
+    }
+
+    private void dispatchAll(List<T> events) {
+        EventBusSubscription<T>[] subscriptions = this.subscriptions.get();
+        if (pooled) {
+            for (T event : events) {
+                ((PooledEvent) event).retain(subscriptions.length);
+            }
+        }
+        try {
+            if (fanOut != null) {
+                fanOut.emitAll(subscriptions, events);
+                return;
+            }
+            for (EventBusSubscription<T> subscription : subscriptions) {
+                subscription.emitAll(events);
+            }
+        } finally {
+            if (pooled) {
+                for (T event : events) {
+                    ((PooledEvent) event).release();
+                }
+            }
+        }
     }
 
     private void subscribe(EventBusSubscription<T> subscription) {
-        subscriptions.add(subscription);
+        EventBusSubscription<T>[] current;
+        EventBusSubscription<T>[] updated;
+        do {
+            current = subscriptions.get();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+        } while (!subscriptions.compareAndSet(current, updated));
+        if (subscription.reserves()) {
+            reserving.incrementAndGet();
+        }
+        metrics.subscribed();
+    }
+
+    void unsubscribe(EventBusSubscription<T> subscription) {
+        EventBusSubscription<T>[] current;
+        EventBusSubscription<T>[] updated;
+        do {
+            current = subscriptions.get();
+            int index = indexOf(current, subscription);
+            if (index < 0) {
+                return;
+            }
+            updated = current.length == 1
+                    ? noSubscriptions()
+                    : Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!subscriptions.compareAndSet(current, updated));
+        if (subscription.reserves()) {
+            reserving.decrementAndGet();
+        }
+        metrics.unsubscribed();
+        Runnable hook = lastUnsubscribeHook;
+        if (updated.length == 0 && hook != null) {
+            hook.run();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> EventBusSubscription<T>[] noSubscriptions() {
+        // The empty array holds no subscriptions of any type.
+        return (EventBusSubscription<T>[]) NO_SUBSCRIPTIONS;
     }
 
-    void unsubscribe(EventSubscription subscription) {
-        queue.execute(() -> subscriptions.remove(subscription));
+    private static int indexOf(EventBusSubscription<?>[] subscriptions, EventSubscription subscription) {
+        for (int i = 0; i < subscriptions.length; i++) {
+            if (subscriptions[i] == subscription) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
@@ -0,0 +1,65 @@
+package com.benbarkay.events;
+
+/**
+ * Receives measurements from an instrumented {@link EventBus} and its subscriptions.
+ * Instrumentation is opt-in: buses are created with {@link #NONE} unless metrics are passed
+ * to {@link EventBus#create(java.util.concurrent.Executor, EventBusMetrics)}, in which case
+ * subscriptions do not read the clock at all. Methods may be called concurrently from any
+ * thread emitting to or delivering events of the bus, and should therefore be thread-safe
+ * and cheap. See {@link EventBusStatistics} for an implementation.
+ */
+public interface EventBusMetrics {
+
+    /**
+     * Metrics which discard all measurements.
+     */
+    EventBusMetrics NONE = new EventBusMetrics() {
+    };
+
+    /**
+     * Called when events are emitted to the bus.
+     * @param count The number of events emitted.
+     */
+    default void emitted(int count) {
+    }
+
+    /**
+     * Called when a subscriber has accepted events without throwing.
+     * @param count             The number of events accepted, which is greater than one for
+     *                          batches accepted by a {@link BatchEventSubscriber}.
+     * @param queueWaitNanos    The time from the emission of the events to the subscription,
+     *                          until the subscriber began accepting them.
+     * @param handlerNanos      The time the subscriber took to accept the events.
+     */
+    default void delivered(int count, long queueWaitNanos, long handlerNanos) {
+    }
+
+    /**
+     * Called when a subscriber has thrown while accepting events. See
+     * {@link #delivered(int, long, long)} for the meaning of the arguments.
+     */
+    default void failed(int count, long queueWaitNanos, long handlerNanos) {
+    }
+
+    /**
+     * Called when events emitted to a subscription are discarded without being delivered:
+     * by the overflow policy of a bounded subscription, or because the subscription was
+     * cancelled before they could be delivered.
+     * @param count The number of events discarded.
+     */
+    default void dropped(int count) {
+    }
+
+    /**
+     * Called when a subscription is added to the bus.
+     */
+    default void subscribed() {
+    }
+
+    /**
+     * Called when a subscription is removed from the bus, including subscriptions of derived
+     * sources which are cancelled once those sources are garbage collected.
+     */
+    default void unsubscribed() {
+    }
+}
@@ -0,0 +1,102 @@
+package com.benbarkay.events;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics which keep counters and latency histograms of an {@link EventBus}.
+ */
+public class EventBusStatistics implements EventBusMetrics {
+
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder subscriptions = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram handlerTime = new LatencyHistogram();
+
+    @Override
+    public void emitted(int count) {
+        emitted.add(count);
+    }
+
+    @Override
+    public void delivered(int count, long queueWaitNanos, long handlerNanos) {
+        delivered.add(count);
+        queueWait.record(queueWaitNanos);
+        handlerTime.record(handlerNanos);
+    }
+
+    @Override
+    public void failed(int count, long queueWaitNanos, long handlerNanos) {
+        failed.add(count);
+        queueWait.record(queueWaitNanos);
+        handlerTime.record(handlerNanos);
+    }
+
+    @Override
+    public void dropped(int count) {
+        dropped.add(count);
+    }
+
+    @Override
+    public void subscribed() {
+        subscriptions.increment();
+    }
+
+    @Override
+    public void unsubscribed() {
+        subscriptions.decrement();
+    }
+
+    /**
+     * The number of events emitted to the bus.
+     */
+    public long emitted() {
+        return emitted.sum();
+    }
+
+    /**
+     * The number of events accepted by subscribers without throwing. An event
+     * delivered to several subscribers is counted once for each of them.
+     */
+    public long delivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * The number of events whose subscribers threw while accepting them.
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * The number of events discarded by subscriptions without being delivered.
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * The number of subscriptions currently subscribed to the bus.
+     */
+    public long liveSubscriptions() {
+        return subscriptions.sum();
+    }
+
+    /**
+     * The time from the emission of events to subscriptions until their subscribers began
+     * accepting them, in nanoseconds.
+     */
+    public LatencyHistogram queueWait() {
+        return queueWait;
+    }
+
+    /**
+     * The time subscribers took to accept events, in nanoseconds.
+     */
+    public LatencyHistogram handlerTime() {
+        return handlerTime;
+    }
+}
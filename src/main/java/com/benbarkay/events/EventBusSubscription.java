@@ -1,8 +1,10 @@
 package com.benbarkay.events;
 
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 class EventBusSubscription<T> implements EventSubscription {
 
@@ -11,31 +13,270 @@ class EventBusSubscription<T> implements EventSubscription {
     private final EventBus<T> bus;
     private final AtomicBoolean cancelled;
     private final ErrorHandler handler;
+    private final EventBuffer<T> buffer;
+    private final EventBusMetrics metrics;
+    private final boolean instrumented;
+    private final EventTracer tracer;
+    private final boolean traced;
+    private final boolean pooled;
 
     EventBusSubscription(
             EventSubscriber<T> subscriber,
             Executor queue,
             EventBus<T> bus,
             ErrorHandler handler) {
+        this(subscriber, queue, bus, handler, (Function<EventBusSubscription<T>, EventBuffer<T>>) null);
+    }
+
+    EventBusSubscription(
+            EventSubscriber<T> subscriber,
+            Executor queue,
+            EventBus<T> bus,
+            ErrorHandler handler,
+            int capacity,
+            OverflowPolicy policy,
+            long demand) {
+        this(subscriber, queue, bus, handler, s -> new SubscriptionBuffer<>(s, queue, capacity, policy, demand));
+    }
+
+    /**
+     * @param buffer    Creates the buffer of events pending delivery to this subscription, or
+     *                  {@code null} in order to hand events straight to the executor.
+     */
+    EventBusSubscription(
+            EventSubscriber<T> subscriber,
+            Executor queue,
+            EventBus<T> bus,
+            ErrorHandler handler,
+            Function<EventBusSubscription<T>, EventBuffer<T>> buffer) {
         this.subscriber = subscriber;
         this.queue = queue;
         this.bus = bus;
         this.handler = handler;
         cancelled = new AtomicBoolean(false);
-
+        metrics = bus.metrics();
+        instrumented = metrics != EventBusMetrics.NONE;
+        tracer = bus.tracer();
+        traced = tracer != EventTracer.NONE;
+        pooled = bus.isPooled();
+        this.buffer = buffer == null ? null : buffer.apply(this);
     }
 
     void emit(T event) {
+        // Since emission no longer goes through the bus executor, a subscription
+        // may be cancelled by another thread after the bus took its snapshot.
+        if (cancelled.get()) {
+            metrics.dropped(1);
+            release(event);
+            return;
+        }
+        // The span of the emission, captured while it is current on the dispatching thread.
+        EventTracer.Span parent = traced ? tracer.current() : null;
+        if (buffer != null) {
+            buffer.offer(event, parent);
+        } else if (queue == EventBus.DIRECT_EXECUTOR) {
+            deliver(event, instrumented ? System.nanoTime() : 0, parent);
+        } else if (instrumented || traced) {
+            long emitted = instrumented ? System.nanoTime() : 0;
+            queue.execute(() -> deliverUnlessCancelled(event, emitted, parent));
+        } else {
+            queue.execute(() -> deliverUnlessCancelled(event, 0, null));
+        }
+    }
+
+    void emitAll(List<T> events) {
+        if (cancelled.get()) {
+            metrics.dropped(events.size());
+            releaseAll(events, 0);
+            return;
+        }
+        EventTracer.Span parent = traced ? tracer.current() : null;
+        if (buffer != null) {
+            // Bounded subscriptions account for each event of the batch separately.
+            for (T event : events) {
+                buffer.offer(event, parent);
+            }
+        } else {
+            long emitted = instrumented ? System.nanoTime() : 0;
+            if (queue == EventBus.DIRECT_EXECUTOR) {
+                deliverAll(events, emitted, parent);
+            } else {
+                queue.execute(() -> deliverAll(events, emitted, parent));
+            }
+        }
+    }
+
+    private void deliverAll(List<T> events, long emitted, EventTracer.Span parent) {
+        if (subscriber instanceof BatchEventSubscriber) {
+            if (cancelled.get()) {
+                metrics.dropped(events.size());
+                releaseAll(events, 0);
+                return;
+            }
+            if (!traced) {
+                acceptAll(events, emitted);
+                return;
+            }
+            EventTracer.Span span = tracer.start("deliver", parent);
+            EventTracer.Span previous = tracer.attach(span);
+            try {
+                acceptAll(events, emitted);
+            } finally {
+                tracer.attach(previous);
+                span.end();
+            }
+        } else {
+            // The batch is unrolled for per-event subscribers, which may cancel midway.
+            for (int i = 0; i < events.size(); i++) {
+                if (cancelled.get()) {
+                    metrics.dropped(events.size() - i);
+                    releaseAll(events, i);
+                    return;
+                }
+                deliver(events.get(i), emitted, parent);
+            }
+        }
+    }
+
+    private void deliverUnlessCancelled(T event, long emitted, EventTracer.Span parent) {
         if (cancelled.get()) {
-            throw new IllegalStateException("attempt to emit to a cancelled subscription");
+            metrics.dropped(1);
+            release(event);
+        } else {
+            deliver(event, emitted, parent);
+        }
+    }
+
+    /**
+     * Delivers an event to the subscriber.
+     * @param event     The event to deliver.
+     * @param emitted   When the event was emitted to this subscription, according to
+     *                  {@link System#nanoTime()}, if this subscription is instrumented.
+     * @param parent    The span of the event's emission, if this subscription is traced.
+     */
+    void deliver(T event, long emitted, EventTracer.Span parent) {
+        if (!traced) {
+            accept(event, emitted);
+            return;
+        }
+        EventTracer.Span span = tracer.start("deliver", parent);
+        EventTracer.Span previous = tracer.attach(span);
+        try {
+            accept(event, emitted);
+        } finally {
+            tracer.attach(previous);
+            span.end();
         }
-        queue.execute(() -> {
+    }
+
+    private void accept(T event, long emitted) {
+        if (!instrumented) {
             try {
                 subscriber.accept(event, this);
             } catch (Throwable t) {
                 handler.error(t);
+            } finally {
+                release(event);
+            }
+            return;
+        }
+        long started = System.nanoTime();
+        Throwable failure = null;
+        try {
+            subscriber.accept(event, this);
+        } catch (Throwable t) {
+            failure = t;
+        }
+        release(event);
+        report(1, emitted, started, failure);
+    }
+
+    private void acceptAll(List<T> events, long emitted) {
+        if (!instrumented) {
+            try {
+                //noinspection unchecked
+                ((BatchEventSubscriber<T>) subscriber).acceptAll(events, this);
+            } catch (Throwable t) {
+                handler.error(t);
+            } finally {
+                releaseAll(events, 0);
+            }
+            return;
+        }
+        long started = System.nanoTime();
+        Throwable failure = null;
+        try {
+            //noinspection unchecked
+            ((BatchEventSubscriber<T>) subscriber).acceptAll(events, this);
+        } catch (Throwable t) {
+            failure = t;
+        }
+        releaseAll(events, 0);
+        report(events.size(), emitted, started, failure);
+    }
+
+    private void report(int count, long emitted, long started, Throwable failure) {
+        long handlerNanos = System.nanoTime() - started;
+        if (failure == null) {
+            metrics.delivered(count, started - emitted, handlerNanos);
+        } else {
+            metrics.failed(count, started - emitted, handlerNanos);
+            handler.error(failure);
+        }
+    }
+
+    /**
+     * Releases the reference this subscription holds to a pooled event, once it was either
+     * accepted by the subscriber or dropped.
+     */
+    void release(T event) {
+        if (pooled) {
+            ((PooledEvent) event).release();
+        }
+    }
+
+    private void releaseAll(List<T> events, int from) {
+        if (pooled) {
+            for (int i = from; i < events.size(); i++) {
+                ((PooledEvent) events.get(i)).release();
             }
-        });
+        }
+    }
+
+    EventBusMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * Whether room is reserved for events before they are dispatched to this subscription.
+     * See {@link #reserve(int)}.
+     */
+    boolean reserves() {
+        return buffer != null && buffer.reserves();
+    }
+
+    /**
+     * Waits on the emitting thread until there is room for the specified number of events in
+     * the buffer of this subscription, and reserves it for them. Returns once cancelled.
+     */
+    void reserve(int count) {
+        buffer.reserve(count);
+    }
+
+    /**
+     * Whether deliveries are measured or traced, in which case buffered events
+     * are kept along with the time and span of their emission.
+     */
+    boolean isInstrumented() {
+        return instrumented || traced;
+    }
+
+    void fail(Throwable t) {
+        handler.error(t);
+    }
+
+    boolean isCancelled() {
+        return cancelled.get();
     }
 
     @Override
@@ -47,7 +288,25 @@ class EventBusSubscription<T> implements EventSubscription {
 
     @Override
     public boolean cancel() {
+        if (!cancelled.compareAndSet(false, true)) {
+            return false;
+        }
         bus.unsubscribe(this);
+        if (buffer != null) {
+            metrics.dropped(buffer.clear());
+        }
         return true;
     }
+
+    @Override
+    public void request(long n) {
+        if (buffer != null) {
+            buffer.request(n);
+        }
+    }
+
+    @Override
+    public int buffered() {
+        return buffer == null ? 0 : buffer.size();
+    }
 }
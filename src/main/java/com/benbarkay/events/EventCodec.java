@@ -0,0 +1,38 @@
+package com.benbarkay.events;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializes events to and from bytes, for instance in order to journal them.
+ * See {@link EventJournal}.
+ * @param <T>   The type of serialized events.
+ */
+public interface EventCodec<T> {
+
+    /**
+     * A codec of strings, encoded as UTF-8.
+     */
+    static EventCodec<String> utf8() {
+        return new EventCodec<String>() {
+            @Override
+            public byte[] encode(String event) {
+                return event.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Serializes an event.
+     */
+    byte[] encode(T event);
+
+    /**
+     * Deserializes an event serialized by {@link #encode(Object)}.
+     */
+    T decode(byte[] bytes);
+}
@@ -1,5 +1,6 @@
 package com.benbarkay.events;
 
+import java.util.Collection;
 import java.util.function.Function;
 
 /**
@@ -15,6 +16,16 @@ public interface EventEmitter<T> {
      */
     void emit(T event);
 
+    /**
+     * Emits the specified events to subscribers, in order. Emitters may deliver the
+     * events as a single batch; see {@link BatchEventSubscriber}.
+     *
+     * @param events The events to emit.
+     */
+    default void emitAll(Collection<T> events) {
+        events.forEach(this::emit);
+    }
+
     /**
      * Emits the specified error to subscribers.
      *
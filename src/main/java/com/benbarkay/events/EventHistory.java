@@ -0,0 +1,32 @@
+package com.benbarkay.events;
+
+import java.util.function.Consumer;
+
+/**
+ * A record of emitted events which a {@link ReplayEventBus} replays to new subscribers.
+ * Each appended event is given a sequence, one greater than that of the event before it.
+ * @param <T>   The type of recorded events.
+ */
+interface EventHistory<T> {
+
+    /**
+     * Records an event.
+     * @return  The sequence of the recorded event.
+     */
+    long append(T event);
+
+    /**
+     * The sequence of the last recorded event, or {@code -1} if none were. Every event
+     * given a later sequence must be appended after this method returns.
+     */
+    long last();
+
+    /**
+     * Replays the recorded events within a range of sequences, in order. Events which are no
+     * longer held by this history are skipped, but the replayed events must be contiguous.
+     * @param from      The sequence of the first event to replay.
+     * @param last      The sequence of the last event to replay, as returned by {@link #last()}.
+     * @param consumer  The consumer to replay events to.
+     */
+    void replay(long from, long last, Consumer<T> consumer);
+}
@@ -0,0 +1,437 @@
+package com.benbarkay.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An emitter which appends events to a journal on disk before emitting them to another emitter,
+ * so that events survive restarts and subscriber state can be rebuilt from them. Each journaled
+ * event is given an offset, starting at zero; {@link #replay(long)} returns a source which
+ * replays the journal from a given offset, and then delivers live events.
+ *
+ * <p>The journal is a directory of segments, each a memory-mapped file of a fixed size, named
+ * after the offset of its first event. Events are written as records of their length plus one,
+ * a CRC32 checksum and their serialized bytes; the zeroed remainder of a segment is thereby told
+ * apart from an empty event. An event is written to the mapped memory before it is emitted, and
+ * so survives a crash of the process; whether it survives a crash of the operating system depends
+ * on the {@link SyncPolicy} of the journal. Records which were torn by a crash are detected by
+ * their checksum when the journal is opened, and discarded along with every record journaled
+ * after them, in any segment.
+ *
+ * <p>Events are appended and emitted one at a time, under the lock of the journal: concurrent
+ * emitters are serialized, so that subscribers receive events in the order they were journaled,
+ * and replays rebuild the state which subscribers saw live. Subscribers to which events are
+ * delivered on the emitting thread therefore hold up other emitters, as well as {@link #sync()}.
+ *
+ * @param <T>   The type of journaled events.
+ */
+public class EventJournal<T> implements EventEmitter<T>, Closeable {
+
+    /**
+     * The default size of a segment, in bytes.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    /**
+     * Opens a journal with segments of {@link #DEFAULT_SEGMENT_SIZE} bytes,
+     * which leaves syncing to the operating system.
+     * See {@link #open(Path, EventCodec, EventEmitter, int, SyncPolicy)}.
+     */
+    public static <T> EventJournal<T> open(Path directory, EventCodec<T> codec, EventEmitter<T> emitter)
+            throws IOException {
+        return open(directory, codec, emitter, DEFAULT_SEGMENT_SIZE, SyncPolicy.never());
+    }
+
+    /**
+     * Opens a journal, creating its directory if it does not exist.
+     * @param directory     The directory of the journal's segments.
+     * @param codec         The codec with which events are serialized.
+     * @param emitter       The emitter to which events are emitted once journaled.
+     * @param segmentSize   The size of each segment, in bytes, which bounds the size of events.
+     * @param syncPolicy    When to sync journaled events to disk.
+     */
+    public static <T> EventJournal<T> open(
+            Path directory,
+            EventCodec<T> codec,
+            EventEmitter<T> emitter,
+            int segmentSize,
+            SyncPolicy syncPolicy) throws IOException {
+        if (segmentSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException("segment size is too small: " + segmentSize);
+        }
+        Files.createDirectories(directory);
+        return new EventJournal<>(directory, codec, emitter, segmentSize, syncPolicy);
+    }
+
+    private static final String SEGMENT_SUFFIX = ".segment";
+
+    /**
+     * The size of the header of each record: its length plus one, followed by its checksum.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    private final Path directory;
+    private final EventCodec<T> codec;
+    private final EventEmitter<T> emitter;
+    private final int segmentSize;
+    private final SyncPolicy syncPolicy;
+    private final List<Segment> segments;
+    private final ReplayEventBus<T> replays;
+    private final CRC32 checksum;
+    private Segment active;
+    private int position;
+    private long next;
+    private volatile long last;
+    private int unsynced;
+    private long syncedAt;
+    private boolean closed;
+
+    private EventJournal(
+            Path directory,
+            EventCodec<T> codec,
+            EventEmitter<T> emitter,
+            int segmentSize,
+            SyncPolicy syncPolicy) throws IOException {
+        this.directory = directory;
+        this.codec = codec;
+        this.emitter = emitter;
+        this.segmentSize = segmentSize;
+        this.syncPolicy = syncPolicy;
+        checksum = new CRC32();
+        segments = new CopyOnWriteArrayList<>();
+        for (Path path : segmentPaths(directory)) {
+            segments.add(Segment.map(path, segmentSize));
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.create(directory, 0, segmentSize));
+        }
+        recover();
+        syncedAt = System.nanoTime();
+        replays = new ReplayEventBus<>(EventBus.DIRECT_EXECUTOR, new History());
+    }
+
+    /**
+     * Journals an event, then emits it to the emitter of this journal and to replaying sources.
+     * @throws UncheckedIOException     If the event could not be journaled, in which case it is
+     *                                  not emitted.
+     * @throws IllegalArgumentException If the serialized event does not fit in a segment.
+     * @throws IllegalStateException    If this journal is closed.
+     */
+    @Override
+    public synchronized void emit(T event) {
+        replays.emit(event);
+        emitter.emit(event);
+    }
+
+    @Override
+    public void error(Throwable t) {
+        emitter.error(t);
+    }
+
+    @Override
+    public boolean hasSubscribers() {
+        return emitter.hasSubscribers() || replays.hasSubscribers();
+    }
+
+    /**
+     * Returns a source which replays the journaled events starting at the specified offset,
+     * and then delivers events as they are journaled. The replay happens on the subscribing
+     * thread, before {@code subscribe} returns.
+     * @param offset    The offset of the first event to replay, such as {@code 0} in order to
+     *                  replay the whole journal, or the number of events processed before a restart.
+     */
+    public EventSource<T> replay(long offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative: " + offset);
+        }
+        return replays.since(offset);
+    }
+
+    /**
+     * The number of events in the journal, which is also the offset the next event will be given.
+     */
+    public long size() {
+        return last + 1;
+    }
+
+    /**
+     * Syncs the journaled events to disk, regardless of the sync policy.
+     */
+    public synchronized void sync() {
+        if (unsynced > 0) {
+            active.buffer.force();
+            unsynced = 0;
+        }
+        syncedAt = System.nanoTime();
+    }
+
+    /**
+     * Syncs the journaled events to disk, and closes this journal. Mapped segments are
+     * released once they are garbage collected.
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            sync();
+            closed = true;
+        }
+    }
+
+    private synchronized long append(T event) {
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+        byte[] bytes = codec.encode(event);
+        if (bytes.length > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException(
+                    "event of " + bytes.length + " bytes does not fit in a segment of " + segmentSize + " bytes");
+        }
+        if (position + HEADER_SIZE + bytes.length > segmentSize) {
+            roll();
+        }
+        checksum.reset();
+        checksum.update(bytes, 0, bytes.length);
+        ByteBuffer buffer = active.buffer;
+        // The length is written last, so that a record is only ever read once it is complete.
+        buffer.position(position + HEADER_SIZE);
+        buffer.put(bytes);
+        buffer.putInt(position + 4, (int) checksum.getValue());
+        buffer.putInt(position, bytes.length + 1);
+        position += HEADER_SIZE + bytes.length;
+        unsynced++;
+        if (syncPolicy.shouldSync(unsynced, System.nanoTime() - syncedAt)) {
+            sync();
+        }
+        long sequence = next++;
+        last = sequence;
+        return sequence;
+    }
+
+    private void roll() {
+        if (unsynced > 0) {
+            active.buffer.force();
+            unsynced = 0;
+        }
+        try {
+            active = Segment.create(directory, next, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segments.add(active);
+        position = 0;
+    }
+
+    /**
+     * Finds the end of the journal by validating the records of each segment in turn. The first
+     * torn record is discarded along with what follows it in its segment, and the segments after
+     * it are deleted, since their events would otherwise be given offsets out of sequence.
+     */
+    private void recover() throws IOException {
+        for (int index = 0; ; index++) {
+            active = segments.get(index);
+            ByteBuffer buffer = active.buffer;
+            position = 0;
+            long count = 0;
+            int length;
+            while ((length = readLength(buffer, position)) >= 0 && verify(buffer, position, length)) {
+                position += HEADER_SIZE + length;
+                count++;
+            }
+            next = active.first + count;
+            if (index + 1 < segments.size() && segments.get(index + 1).first == next) {
+                continue;
+            }
+            truncate();
+            while (segments.size() > index + 1) {
+                Files.delete(segments.remove(segments.size() - 1).path);
+            }
+            break;
+        }
+        last = next - 1;
+    }
+
+    /**
+     * Zeroes the active segment from the current position, so that the remains of discarded
+     * records are not mistaken for records once new ones are appended over them.
+     */
+    private void truncate() {
+        ByteBuffer buffer = active.buffer;
+        boolean modified = false;
+        for (int i = position; i < segmentSize; i++) {
+            if (buffer.get(i) != 0) {
+                buffer.put(i, (byte) 0);
+                modified = true;
+            }
+        }
+        if (modified) {
+            active.buffer.force();
+        }
+    }
+
+    /**
+     * Reads the length of the record at the specified position, or returns {@code -1} if there
+     * is no record there.
+     */
+    private int readLength(ByteBuffer buffer, int position) {
+        if (position + HEADER_SIZE > segmentSize) {
+            return -1;
+        }
+        int length = buffer.getInt(position) - 1;
+        return length < 0 || length > segmentSize - position - HEADER_SIZE ? -1 : length;
+    }
+
+    private boolean verify(ByteBuffer buffer, int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer record = buffer.duplicate();
+        record.position(position + HEADER_SIZE);
+        record.get(bytes);
+        checksum.reset();
+        checksum.update(bytes, 0, bytes.length);
+        return buffer.getInt(position + 4) == (int) checksum.getValue();
+    }
+
+    private static List<Path> segmentPaths(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * The journal as the history of the replaying sources. Events up to the last sequence
+     * are completely written to their segments, and are read through views of the mappings.
+     */
+    private class History implements EventHistory<T> {
+
+        @Override
+        public long append(T event) {
+            return EventJournal.this.append(event);
+        }
+
+        @Override
+        public long last() {
+            return last;
+        }
+
+        @Override
+        public void replay(long from, long last, Consumer<T> consumer) {
+            List<Segment> segments = new ArrayList<>(EventJournal.this.segments);
+            int index = 0;
+            while (index + 1 < segments.size() && segments.get(index + 1).first <= from) {
+                index++;
+            }
+            long sequence = segments.get(index).first;
+            for (; index < segments.size() && sequence <= last; index++) {
+                ByteBuffer buffer = segments.get(index).buffer.duplicate();
+                int position = 0;
+                int length;
+                while (sequence <= last && (length = readLength(buffer, position)) >= 0) {
+                    if (sequence >= from) {
+                        byte[] bytes = new byte[length];
+                        buffer.position(position + HEADER_SIZE);
+                        buffer.get(bytes);
+                        consumer.accept(codec.decode(bytes));
+                    }
+                    position += HEADER_SIZE + length;
+                    sequence++;
+                }
+            }
+        }
+    }
+
+    /**
+     * A segment of the journal, mapped in its entirety.
+     */
+    private static class Segment {
+        private final Path path;
+        private final long first;
+        private final MappedByteBuffer buffer;
+
+        private Segment(Path path, long first, MappedByteBuffer buffer) {
+            this.path = path;
+            this.first = first;
+            this.buffer = buffer;
+        }
+
+        static Segment create(Path directory, long first, int size) throws IOException {
+            return map(directory.resolve(String.format("%020d", first) + SEGMENT_SUFFIX), size);
+        }
+
+        static Segment map(Path path, int size) throws IOException {
+            String name = path.getFileName().toString();
+            long first = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            try (FileChannel channel = FileChannel.open(
+                    path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                // The mapping remains valid once the channel is closed.
+                return new Segment(path, first, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+
+    /**
+     * Determines when journaled events are synced to disk.
+     */
+    public static final class SyncPolicy {
+
+        /**
+         * Leaves syncing to the operating system. Events survive a crash of the process,
+         * but not necessarily a crash of the operating system.
+         */
+        public static SyncPolicy never() {
+            return new SyncPolicy(Integer.MAX_VALUE, Long.MAX_VALUE);
+        }
+
+        /**
+         * Syncs every event before it is emitted. Safest, and slowest.
+         */
+        public static SyncPolicy always() {
+            return new SyncPolicy(1, Long.MAX_VALUE);
+        }
+
+        /**
+         * Syncs events in groups: once the specified number of events are unsynced, or once
+         * an event is journaled the specified time after the last sync, whichever comes first.
+         * Unsynced events are not synced by time alone; call {@link EventJournal#sync()} for that.
+         * @param events    The maximum number of unsynced events.
+         * @param interval  The maximum time between syncs, while events are journaled.
+         * @param unit      The unit of {@code interval}.
+         */
+        public static SyncPolicy groupCommit(int events, long interval, TimeUnit unit) {
+            if (events <= 0) {
+                throw new IllegalArgumentException("events must be positive: " + events);
+            }
+            return new SyncPolicy(events, unit.toNanos(interval));
+        }
+
+        private final int events;
+        private final long intervalNanos;
+
+        private SyncPolicy(int events, long intervalNanos) {
+            this.events = events;
+            this.intervalNanos = intervalNanos;
+        }
+
+        boolean shouldSync(int unsynced, long sinceSyncNanos) {
+            return unsynced >= events || sinceSyncNanos >= intervalNanos;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.benbarkay.events;
+
+/**
+ * Reported to the error handlers of a bounded subscription when an event is discarded
+ * because the subscription's buffer is full. See {@link OverflowPolicy#FAIL}.
+ */
+public class EventOverflowException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    EventOverflowException(int capacity) {
+        super("subscription buffer is full (capacity " + capacity + ")");
+    }
+}
@@ -0,0 +1,144 @@
+package com.benbarkay.events;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * A pool of reusable events. See {@link PooledEvent}.
+ *
+ * <p>Released events are held in a bounded lock-free queue, in which each slot is guarded by a
+ * sequence, so that acquiring and releasing neither lock nor allocate. The pool is shared by
+ * all threads: events are typically acquired by emitting threads and released by the threads
+ * of subscribers, so per-thread pools would run dry on the former and fill up on the latter.
+ * Events acquired while the pool is empty are created by its factory, and events released while
+ * it is full are left to the garbage collector; in a steady state, neither happens.
+ *
+ * @param <T>   The type of pooled events.
+ */
+public class EventPool<T extends PooledEvent> {
+
+    /**
+     * Creates a pool.
+     * @param factory   Creates events when the pool is empty.
+     * @param capacity  The maximum number of released events held by the pool, which should
+     *                  exceed the number of events in flight at any time.
+     */
+    public static <T extends PooledEvent> EventPool<T> create(Supplier<T> factory, int capacity) {
+        return new EventPool<>(factory, capacity, false);
+    }
+
+    /**
+     * Creates a pool which never reuses events, so that events used after their release
+     * can be detected through {@link PooledEvent#checkNotReleased()}, as well as when they
+     * are emitted or retained again. Emitting a released event to a pooled bus fails on the
+     * emitting thread, whatever the executor of the bus. Every acquired event is newly created.
+     * @param factory   Creates events.
+     */
+    public static <T extends PooledEvent> EventPool<T> debug(Supplier<T> factory) {
+        return new EventPool<>(factory, 1, true);
+    }
+
+    private final Supplier<T> factory;
+    private final boolean debug;
+    private final int mask;
+    private final AtomicReferenceArray<PooledEvent> events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    private final AtomicLong created;
+
+    private EventPool(Supplier<T> factory, int capacity, boolean debug) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.factory = factory;
+        this.debug = debug;
+        int slots = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = slots - 1;
+        events = new AtomicReferenceArray<>(slots);
+        sequences = new AtomicLongArray(slots);
+        for (int i = 0; i < slots; i++) {
+            sequences.set(i, i);
+        }
+        head = new AtomicLong();
+        tail = new AtomicLong();
+        created = new AtomicLong();
+    }
+
+    /**
+     * Acquires an event, which is either a released event or a newly created one.
+     * The event is returned to this pool once emitted to a pooled bus and processed by its
+     * subscribers, or once released by the caller.
+     */
+    public T acquire() {
+        // Only events acquired from this pool are released back into it.
+        @SuppressWarnings("unchecked")
+        T event = (T) poll();
+        if (event == null) {
+            event = factory.get();
+            created.incrementAndGet();
+        }
+        event.acquired(this);
+        return event;
+    }
+
+    /**
+     * The number of events created by this pool, which stops increasing once the pool holds
+     * enough events for the rate they are acquired at.
+     */
+    public long created() {
+        return created.get();
+    }
+
+    boolean isDebug() {
+        return debug;
+    }
+
+    void recycle(PooledEvent event) {
+        if (!debug) {
+            event.reset();
+            offer(event);
+        }
+    }
+
+    private boolean offer(PooledEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events.set(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // Full: the slot still holds an event from the previous lap.
+                return false;
+            }
+            position = tail.get();
+        }
+    }
+
+    private PooledEvent poll() {
+        long position = head.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    PooledEvent event = events.get(index);
+                    events.set(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return event;
+                }
+            } else if (difference < 0) {
+                // Empty: the slot has yet to be written on this lap.
+                return null;
+            }
+            position = head.get();
+        }
+    }
+}
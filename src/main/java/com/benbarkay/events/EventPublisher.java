@@ -0,0 +1,136 @@
+package com.benbarkay.events;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Exposes an {@link EventSource} as a Reactive Streams {@link Publisher}. Each subscriber
+ * is given an on-demand subscription to the source, so events are only delivered as they
+ * are requested; events emitted in the meantime are buffered according to the capacity
+ * and overflow policy of this publisher.
+ * @param <T>   The type of published events.
+ */
+class EventPublisher<T> implements Publisher<T> {
+
+    private final EventSource<T> source;
+    private final Executor executor;
+    private final int capacity;
+    private final OverflowPolicy policy;
+
+    EventPublisher(EventSource<T> source, Executor executor, int capacity, OverflowPolicy policy) {
+        this.source = source;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        SignalingSubscriber<T> signaling = new SignalingSubscriber<>(subscriber);
+        // The subscriber is handed its subscription before anything can be signalled to it,
+        // and demand it requests in the meantime is requested once the source was subscribed to.
+        subscriber.onSubscribe(signaling);
+        EventSubscription subscription;
+        try {
+            subscription = source.subscribeOnDemand(signaling, executor, capacity, policy);
+        } catch (RuntimeException e) {
+            signaling.fail(e);
+            return;
+        }
+        signaling.attach(subscription.error(signaling::fail));
+    }
+
+    /**
+     * Relays events to a Reactive Streams subscriber, making sure that {@code onNext} and
+     * {@code onError} are signalled serially and that nothing is signalled after {@code onError}.
+     * Failing cancels the underlying subscription, or the subscription once it is attached if
+     * it was not yet.
+     */
+    private static class SignalingSubscriber<T> implements EventSubscriber<T>, Subscription {
+
+        private final Subscriber<? super T> subscriber;
+        private final Object lock = new Object();
+        private EventSubscription subscription;
+        private long pendingDemand;
+        private boolean cancelled;
+        private boolean terminated;
+
+        SignalingSubscriber(Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void accept(T event, EventSubscription subscription) {
+            if (!terminated) {
+                subscriber.onNext(event);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("non-positive subscription request (rule 3.9): " + n));
+                return;
+            }
+            EventSubscription subscription;
+            synchronized (lock) {
+                if (cancelled) {
+                    return;
+                }
+                subscription = this.subscription;
+                if (subscription == null) {
+                    pendingDemand = pendingDemand + n < 0 ? Long.MAX_VALUE : pendingDemand + n;
+                    return;
+                }
+            }
+            subscription.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            EventSubscription subscription;
+            synchronized (lock) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                subscription = this.subscription;
+            }
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+
+        void attach(EventSubscription subscription) {
+            long demand;
+            boolean cancelled;
+            synchronized (lock) {
+                this.subscription = subscription;
+                demand = pendingDemand;
+                cancelled = this.cancelled;
+            }
+            if (cancelled) {
+                subscription.cancel();
+            } else if (demand > 0) {
+                subscription.request(demand);
+            }
+        }
+
+        void fail(Throwable t) {
+            synchronized (this) {
+                if (terminated) {
+                    return;
+                }
+                terminated = true;
+                subscriber.onError(t);
+            }
+            cancel();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.benbarkay.events;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
@@ -8,6 +9,9 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 /**
  * Facilitates a source of events.
@@ -28,6 +32,76 @@ public interface EventSource<T> {
      */
     EventSubscription subscribe(EventSubscriber<T> subscriber, Executor executor);
 
+    /**
+     * Subscribes an {@link EventSubscriber} to this event source through a bounded buffer.
+     * Events which the subscriber has yet to accept are held in a buffer of at most
+     * {@code capacity} events; the specified policy determines what happens to events
+     * emitted while the buffer is full. The number of buffered events is available through
+     * {@link EventSubscription#buffered()}.
+     *
+     * <p>By default, events are relayed through a bus which buffers them, subscribed to this
+     * source with {@link #subscribe(EventSubscriber, Executor)}. {@link OverflowPolicy#BLOCK}
+     * subscriptions then block the thread delivering to the relay, rather than the emitting thread.
+     * @param subscriber    The subscriber to subscribe to this source.
+     * @param executor      The executor upon which to accept the event.
+     * @param capacity      The maximum number of buffered events.
+     * @param policy        The policy to apply when the buffer is full.
+     * @return  An {@link EventSubscription} instance representing this subscription.
+     */
+    default EventSubscription subscribe(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        return new RelaySource<>(this).subscribe(subscriber, executor, capacity, policy);
+    }
+
+    /**
+     * Subscribes an {@link EventSubscriber} to this event source through a bounded buffer, and
+     * delivers events only as they are requested through {@link EventSubscription#request(long)}.
+     * The subscription starts with no demand. See
+     * {@link #subscribe(EventSubscriber, Executor, int, OverflowPolicy)} for more information.
+     */
+    default EventSubscription subscribeOnDemand(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        return new RelaySource<>(this).subscribeOnDemand(subscriber, executor, capacity, policy);
+    }
+
+    /**
+     * Subscribes an {@link EventSubscriber} to this event source through a buffer which holds
+     * at most one event per key. While the subscriber is busy, an event replaces the pending
+     * event of its key, if any, so that a slow subscriber only accepts the latest event of each
+     * key, and the buffer is bounded by the number of distinct keys rather than by the rate of
+     * events. Events of the same key are accepted in order. Replaced events are not delivered,
+     * and count as dropped; see {@link EventBusMetrics}. Events are only conflated while they wait
+     * for the executor, so this is of no use with an executor that accepts them as they are emitted.
+     *
+     * <p>By default, events are relayed through a bus which conflates them, subscribed to this
+     * source with {@link #subscribe(EventSubscriber, Executor)}.
+     * @param subscriber    The subscriber to subscribe to this source.
+     * @param executor      The executor upon which to accept the event.
+     * @param keyExtractor  Extracts the key by which events are conflated.
+     * @param <K>   The type of keys.
+     * @return  An {@link EventSubscription} instance representing this subscription.
+     */
+    default <K> EventSubscription subscribeConflating(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            Function<T, K> keyExtractor) {
+        return new RelaySource<>(this).subscribeConflating(subscriber, executor, keyExtractor);
+    }
+
+    /**
+     * Subscribes through a conflating buffer, using the same executor as this source.
+     * See {@link #subscribeConflating(EventSubscriber, Executor, Function)} for more information.
+     */
+    default <K> EventSubscription subscribeConflating(EventSubscriber<T> subscriber, Function<T, K> keyExtractor) {
+        return subscribeConflating(subscriber, executor(), keyExtractor);
+    }
+
     /**
      * Subscribes using the same executor as this source. See {@link #subscribe(EventSubscriber, Executor)}
      * for more information.
@@ -36,6 +110,65 @@ public interface EventSource<T> {
         return subscribe(subscriber, executor());
     }
 
+    /**
+     * Subscribes an {@link EventSubscriber} which is accepted on a virtual thread of its own.
+     * Events are delivered to the subscriber one at a time and in order, so the subscriber may
+     * block (for instance, on I/O) without holding up other subscribers or an executor's
+     * platform threads. A virtual thread is only started while events are pending delivery.
+     * See {@link #subscribe(EventSubscriber, Executor)} for more information.
+     * @throws UnsupportedOperationException    If virtual threads are unavailable, which is the
+     *                                          case on runtimes older than Java 21.
+     */
+    default EventSubscription subscribeOnVirtualThread(EventSubscriber<T> subscriber) {
+        return subscribe(subscriber, VirtualThreads.newSerialExecutor());
+    }
+
+    /**
+     * Subscribes an {@link AsyncEventSubscriber} to this event source, which is handed events
+     * without waiting for earlier events to be accepted, up to {@code maxInFlight} events at a
+     * time. Events emitted while the limit is reached wait in a bounded buffer, as with
+     * {@link #subscribeOnDemand(EventSubscriber, Executor, int, OverflowPolicy)}, and failures of
+     * the subscriber are reported to the error handlers of the returned subscription.
+     * @param subscriber    The subscriber to subscribe to this source.
+     * @param executor      The executor upon which to hand events to the subscriber.
+     * @param maxInFlight   The maximum number of events in flight.
+     * @param order         When events stop counting against {@code maxInFlight}.
+     * @param capacity      The maximum number of events waiting for the subscriber.
+     * @param policy        The policy to apply when the buffer is full.
+     * @return  An {@link EventSubscription} instance representing this subscription.
+     */
+    default EventSubscription subscribeAsync(
+            AsyncEventSubscriber<T> subscriber,
+            Executor executor,
+            int maxInFlight,
+            CompletionOrder order,
+            int capacity,
+            OverflowPolicy policy) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        EventSubscription subscription = subscribeOnDemand(
+                new AsyncSubscriberAdapter<>(subscriber, order), executor, capacity, policy);
+        subscription.request(maxInFlight);
+        return subscription;
+    }
+
+    /**
+     * Subscribes an {@link AsyncEventSubscriber} using the same executor as this source, with room
+     * for {@code maxInFlight} further events waiting for the subscriber. Events emitted while there
+     * is no room are discarded, and reported to the error handlers of the returned subscription as
+     * an {@link EventOverflowException}; emitters are never blocked, so that they may complete the
+     * stages of the subscriber themselves.
+     * See {@link #subscribeAsync(AsyncEventSubscriber, Executor, int, CompletionOrder, int, OverflowPolicy)}
+     * for more information, and in order to choose another policy.
+     */
+    default EventSubscription subscribeAsync(
+            AsyncEventSubscriber<T> subscriber,
+            int maxInFlight,
+            CompletionOrder order) {
+        return subscribeAsync(subscriber, executor(), maxInFlight, order, maxInFlight, OverflowPolicy.FAIL);
+    }
+
     /**
      * Consumes events emitted by this source, using the specified executor.
      * @param consumer  The consumer to use.
@@ -74,15 +207,14 @@ public interface EventSource<T> {
 
     /**
      * Filters this source using the specified executor.
+     * Consecutive {@code filter}, {@code map} and {@code peek} stages sharing an executor
+     * are fused and evaluated by a single subscription.
      * @param predicate The predicate used in order to filter events emitted by this source.
      * @param executor  The executor to used for filtering.
      * @return  A source with filtered events.
      */
     default EventSource<T> filter(Predicate<T> predicate, Executor executor) {
-        EventBus<T> recipient = EventBus.create(executor());
-        subscribe(new FilteringSubscriber<>(predicate, recipient), executor)
-            .error(recipient::error);
-        return recipient;
+        return PipelineSource.filter(this, predicate, executor);
     }
 
     /**
@@ -107,16 +239,15 @@ public interface EventSource<T> {
 
     /**
      * Maps the events of this source using the specified executor.
+     * Consecutive {@code filter}, {@code map} and {@code peek} stages sharing an executor
+     * are fused and evaluated by a single subscription.
      * @param fn        The mapping function to use.
      * @param executor  The executor to use for mapping.
      * @param <F>       The type of the mapped objects.
      * @return  A source of mapped objects, mapped by the specified function.
      */
     default <F> EventSource<F> map(Function<T, F> fn, Executor executor) {
-        EventBus<F> recipient = EventBus.create(executor());
-        subscribe(new MappingSubscriber<>(fn, recipient), executor)
-            .error(recipient::error);
-        return recipient;
+        return PipelineSource.map(this, fn, executor);
     }
 
     /**
@@ -135,10 +266,7 @@ public interface EventSource<T> {
      * @return  A source which relays the events of this source.
      */
     default EventSource<T> peek(Consumer<T> consumer, Executor executor) {
-        EventBus<T> recipient = EventBus.create(executor());
-        subscribe(new PeekingSubscriber<>(consumer, recipient), executor)
-            .error(recipient::error);
-        return recipient;
+        return PipelineSource.peek(this, consumer, executor);
     }
 
     /**
@@ -148,6 +276,106 @@ public interface EventSource<T> {
         return peek(consumer, executor());
     }
 
+    /**
+     * Buffers the events of this source into lists of the specified number of events.
+     * Events which have yet to fill a list are discarded once the returned source no longer
+     * has subscribers.
+     * @param count The number of events in each list.
+     * @return  A source of lists of events.
+     */
+    default EventSource<List<T>> buffer(int count) {
+        return OperatorSource.buffer(this, count);
+    }
+
+    /**
+     * Buffers the events of this source into lists of the events emitted within each period
+     * of the specified duration. Periods in which no events were emitted produce no list.
+     * Timed operators share a single scheduler thread, on which the lists are emitted.
+     * @param duration  The duration of each period.
+     * @param unit      The unit of {@code duration}.
+     * @return  A source of lists of events.
+     */
+    default EventSource<List<T>> buffer(long duration, TimeUnit unit) {
+        return OperatorSource.buffer(this, duration, unit);
+    }
+
+    /**
+     * Emits windows of the events of this source: every {@code step}, the events emitted
+     * within the last {@code size}, unless there were none. Windows overlap, or slide, when
+     * the step is shorter than the size, are consecutive, or tumbling, when they are equal, and
+     * leave gaps, or hop, when the step is longer: events emitted between windows are dropped.
+     * See {@link #buffer(long, TimeUnit)} for more information.
+     * @param size  The duration of each window.
+     * @param step  The time between the emission of consecutive windows.
+     * @param unit  The unit of {@code size} and {@code step}.
+     * @return  A source of windows of events.
+     */
+    default EventSource<List<T>> window(long size, long step, TimeUnit unit) {
+        return OperatorSource.window(this, size, step, unit);
+    }
+
+    /**
+     * Emits the events of this source once no other event has been emitted for the
+     * specified quiet period after them, discarding the events they followed.
+     * See {@link #buffer(long, TimeUnit)} for more information.
+     * @param quiet The quiet period.
+     * @param unit  The unit of {@code quiet}.
+     * @return  A source of debounced events.
+     */
+    default EventSource<T> debounce(long quiet, TimeUnit unit) {
+        return OperatorSource.debounce(this, quiet, unit);
+    }
+
+    /**
+     * Emits the first event of this source, then discards events until the specified
+     * interval has passed, and so on.
+     * @param interval  The minimum time between emitted events.
+     * @param unit      The unit of {@code interval}.
+     * @return  A source of throttled events.
+     */
+    default EventSource<T> throttle(long interval, TimeUnit unit) {
+        return OperatorSource.throttle(this, interval, unit);
+    }
+
+    /**
+     * Emits the last event of this source within each interval, if any, at the end of the
+     * interval. See {@link #buffer(long, TimeUnit)} for more information.
+     * @param interval  The interval at which events are sampled.
+     * @param unit      The unit of {@code interval}.
+     * @return  A source of sampled events.
+     */
+    default EventSource<T> sample(long interval, TimeUnit unit) {
+        return OperatorSource.sample(this, interval, unit);
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped to {@code long} events which are
+     * delivered without boxing them. Each subscriber of the returned source is subscribed to
+     * this source on its executor. See {@link LongEventSource}.
+     */
+    default LongEventSource mapToLong(ToLongFunction<T> fn) {
+        return subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.applyAsLong(event), subscription));
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped to {@code int} events.
+     * See {@link #mapToLong(ToLongFunction)}.
+     */
+    default IntEventSource mapToInt(ToIntFunction<T> fn) {
+        return subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.applyAsInt(event), subscription));
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped to {@code double} events.
+     * See {@link #mapToLong(ToLongFunction)}.
+     */
+    default DoubleEventSource mapToDouble(ToDoubleFunction<T> fn) {
+        return subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.applyAsDouble(event), subscription));
+    }
+
     /**
      * Forwards events to the specified recipient.
      * @param recipient The recipient to forward events to.
@@ -32,4 +32,22 @@ public interface EventSubscription {
      *          or {@code false} if the subscription was already cancelled.
      */
     boolean cancel();
+
+    /**
+     * Adds demand for {@code n} more events. Only subscriptions created through
+     * {@link EventSource#subscribeOnDemand(EventSubscriber, java.util.concurrent.Executor, int, OverflowPolicy)}
+     * wait for demand; other subscriptions ignore this method.
+     * @param n The number of additional events to deliver. Must be positive.
+     */
+    default void request(long n) {
+    }
+
+    /**
+     * The number of events buffered by this subscription, pending delivery to its subscriber.
+     * Subscriptions without a bounded buffer hand events straight to their executor,
+     * and always return {@code 0}.
+     */
+    default int buffered() {
+        return 0;
+    }
 }
@@ -0,0 +1,77 @@
+package com.benbarkay.events;
+
+/**
+ * Traces events as they travel through buses, derived sources and subscribers. When a
+ * tracer is installed through {@link EventTracing#install(EventTracer)}, emitting an event
+ * starts an {@code emit} span as a child of the span current on the emitting thread, and each
+ * delivery of the event is accepted within a {@code deliver} span, child of the former, which
+ * is made current on the subscriber's executor for the duration of the delivery. Stages of
+ * {@code map}, {@code filter} and {@code peek} add spans of their own, and events emitted or
+ * forwarded by a subscriber become children of its delivery, so a trace follows an event
+ * across every bus it passes through.
+ *
+ * <p>Implementations may adapt an existing tracing library, in which case spans are expected
+ * to be tracked on the same thread-local context as the library's own. Methods are called
+ * concurrently from any thread emitting or delivering events, and should be cheap.
+ */
+public interface EventTracer {
+
+    /**
+     * A tracer which traces nothing. Buses created while this tracer is installed skip
+     * tracing altogether.
+     */
+    EventTracer NONE = new EventTracer() {
+        @Override
+        public Span current() {
+            return null;
+        }
+
+        @Override
+        public Span start(String name, Span parent) {
+            return Span.NONE;
+        }
+
+        @Override
+        public Span attach(Span span) {
+            return null;
+        }
+    };
+
+    /**
+     * The span current on the calling thread, or {@code null} if there is none.
+     */
+    Span current();
+
+    /**
+     * Starts a span.
+     * @param name      The name of the span, such as {@code emit}, {@code deliver} or {@code map}.
+     * @param parent    The parent of the span, or {@code null} for a root span.
+     * @return  The started span.
+     */
+    Span start(String name, Span parent);
+
+    /**
+     * Makes a span current on the calling thread.
+     * @param span  The span to make current, or {@code null} to clear the current span.
+     * @return  The previously current span, to be attached again once the span is done with.
+     */
+    Span attach(Span span);
+
+    /**
+     * A span started by an {@link EventTracer}.
+     */
+    interface Span {
+
+        /**
+         * A span which records nothing.
+         */
+        Span NONE = () -> {
+        };
+
+        /**
+         * Ends this span. Spans may end after their children, and on a different
+         * thread than the one they were started on.
+         */
+        void end();
+    }
+}
@@ -0,0 +1,35 @@
+package com.benbarkay.events;
+
+/**
+ * Holds the {@link EventTracer} used by buses. The tracer is read once by each bus when it
+ * is created, so buses created before a tracer is installed are not traced, and tracing
+ * costs nothing on buses created while {@link EventTracer#NONE}, the default, is installed.
+ */
+public final class EventTracing {
+
+    private static volatile EventTracer tracer = EventTracer.NONE;
+
+    private EventTracing() {
+    }
+
+    /**
+     * Installs a tracer for buses created from now on.
+     * @param tracer    The tracer to install, or {@link EventTracer#NONE} to stop tracing.
+     * @return  The previously installed tracer.
+     */
+    public static EventTracer install(EventTracer tracer) {
+        if (tracer == null) {
+            throw new NullPointerException("tracer");
+        }
+        EventTracer previous = EventTracing.tracer;
+        EventTracing.tracer = tracer;
+        return previous;
+    }
+
+    /**
+     * The installed tracer.
+     */
+    public static EventTracer tracer() {
+        return tracer;
+    }
+}
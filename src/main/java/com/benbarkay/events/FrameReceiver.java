@@ -0,0 +1,18 @@
+package com.benbarkay.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The receiving end of a transport of frames between processes. See {@link BridgedEventSource}.
+ */
+interface FrameReceiver extends Closeable {
+
+    /**
+     * Blocks until a frame is received. The returned buffer holds the frame between its
+     * position and limit, and is only valid until the next call.
+     * @return  The received frame, or {@code null} once the transport is closed.
+     */
+    ByteBuffer receive() throws IOException;
+}
@@ -0,0 +1,22 @@
+package com.benbarkay.events;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The sending end of a transport of frames between processes. See {@link EventBridge}.
+ */
+interface FrameSender extends Closeable {
+
+    /**
+     * The size of the largest frame this sender can send, in bytes.
+     */
+    int maxFrameSize();
+
+    /**
+     * Sends the remaining bytes of a frame, blocking while the transport is full.
+     * Frames are sent by a single thread at a time.
+     */
+    void send(ByteBuffer frame) throws IOException;
+}
@@ -0,0 +1,105 @@
+package com.benbarkay.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A tracer which keeps ended spans in memory, intended for tests and diagnostics.
+ * Current spans are tracked per thread.
+ */
+public class InMemoryEventTracer implements EventTracer {
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final ConcurrentLinkedQueue<RecordedSpan> ended = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public Span current() {
+        return current.get();
+    }
+
+    @Override
+    public Span start(String name, Span parent) {
+        RecordedSpan recordedParent = parent instanceof RecordedSpan ? (RecordedSpan) parent : null;
+        return new RecordedSpan(ids.incrementAndGet(), name, recordedParent);
+    }
+
+    @Override
+    public Span attach(Span span) {
+        Span previous = current.get();
+        if (span == null) {
+            current.remove();
+        } else {
+            current.set(span);
+        }
+        return previous;
+    }
+
+    /**
+     * The spans which have ended, in the order they ended.
+     */
+    public List<RecordedSpan> spans() {
+        return new ArrayList<>(ended);
+    }
+
+    /**
+     * Discards the spans which have ended.
+     */
+    public void clear() {
+        ended.clear();
+    }
+
+    /**
+     * A span recorded by an {@link InMemoryEventTracer}.
+     */
+    public class RecordedSpan implements Span {
+
+        private final long id;
+        private final String name;
+        private final RecordedSpan parent;
+        private final long startNanos;
+        private volatile long endNanos;
+
+        RecordedSpan(long id, String name, RecordedSpan parent) {
+            this.id = id;
+            this.name = name;
+            this.parent = parent;
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void end() {
+            endNanos = System.nanoTime();
+            ended.add(this);
+        }
+
+        public long id() {
+            return id;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * The parent of this span, or {@code null} if this is a root span.
+         */
+        public RecordedSpan parent() {
+            return parent;
+        }
+
+        /**
+         * The time from the start to the end of this span.
+         */
+        public long durationNanos() {
+            return endNanos - startNanos;
+        }
+
+        @Override
+        public String toString() {
+            return parent == null ? name + "#" + id : parent + " > " + name + "#" + id;
+        }
+    }
+}
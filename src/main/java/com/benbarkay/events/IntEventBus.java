@@ -0,0 +1,55 @@
+package com.benbarkay.events;
+
+import java.util.function.Consumer;
+
+/**
+ * A bus of {@code int} events, which are delivered to subscribers on the emitting thread
+ * without boxing them or allocating. See {@link IntEventSource}.
+ *
+ * <p>Subscribers are delivered to in the order they subscribed. Exceptions thrown by a
+ * subscriber are reported to the error handlers of its subscription, and otherwise to
+ * those of this bus.
+ */
+public class IntEventBus extends PrimitiveEventBus<IntEventSubscriber> implements IntEventSource, IntEventEmitter {
+
+    public static IntEventBus create() {
+        return new IntEventBus();
+    }
+
+    private IntEventBus() {
+    }
+
+    @Override
+    public EventSubscription subscribe(IntEventSubscriber subscriber) {
+        return add(subscriber);
+    }
+
+    /**
+     * Adds an error handler to this bus. See {@link EventSource#error(Class, Consumer)}.
+     */
+    public <E extends Throwable> IntEventBus error(Class<E> type, Consumer<E> consumer) {
+        addErrorHandler(type, consumer);
+        return this;
+    }
+
+    /**
+     * Adds a catch-all error handler to this bus.
+     */
+    public IntEventBus error(Consumer<Throwable> consumer) {
+        return error(Throwable.class, consumer);
+    }
+
+    @Override
+    public void emit(int event) {
+        for (Subscription<IntEventSubscriber> subscription : subscriptions()) {
+            if (subscription.isCancelled()) {
+                continue;
+            }
+            try {
+                subscription.subscriber.accept(event, subscription);
+            } catch (Throwable t) {
+                subscription.fail(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.benbarkay.events;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A source of {@code int} events, which are delivered without boxing them. See {@link IntEventBus}.
+ *
+ * <p>Events are delivered on the emitting thread. The sources derived through {@code map},
+ * {@code filter} and {@code peek} do not have subscriptions or buses of their own: subscribing
+ * to a derived source subscribes to this source with a subscriber which evaluates the stages
+ * before accepting each event, so that a chain of stages neither boxes nor allocates, and its
+ * subscriptions are the subscriptions of the source it derives from. Stages are therefore
+ * evaluated once per subscriber, and exceptions they throw are reported to the subscriptions
+ * they run within.
+ *
+ * <p>{@link #boxed()} and {@link #mapToObj(IntFunction)} convert this source to an
+ * {@link EventSource}, and {@link EventSource#mapToInt(java.util.function.ToIntFunction)}
+ * converts an {@code EventSource} to a {@code IntEventSource}.
+ */
+@FunctionalInterface
+public interface IntEventSource {
+
+    /**
+     * Subscribes to events of this source, which are delivered on the emitting thread.
+     * @param subscriber    The subscriber to subscribe.
+     * @return  The subscription of the subscriber.
+     */
+    EventSubscription subscribe(IntEventSubscriber subscriber);
+
+    /**
+     * Subscribes a consumer to events of this source.
+     */
+    default EventSubscription consume(IntConsumer consumer) {
+        return subscribe((event, subscription) -> consumer.accept(event));
+    }
+
+    /**
+     * Returns a source of the events of this source which match the specified predicate.
+     */
+    default IntEventSource filter(IntPredicate predicate) {
+        return subscriber -> subscribe((event, subscription) -> {
+            if (predicate.test(event)) {
+                subscriber.accept(event, subscription);
+            }
+        });
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped by the specified function.
+     */
+    default IntEventSource map(IntUnaryOperator fn) {
+        return subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.applyAsInt(event), subscription));
+    }
+
+    /**
+     * Returns a source of the events of this source, which are passed to the specified
+     * consumer before being accepted by subscribers.
+     */
+    default IntEventSource peek(IntConsumer consumer) {
+        return subscriber -> subscribe((event, subscription) -> {
+            consumer.accept(event);
+            subscriber.accept(event, subscription);
+        });
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped to {@code long} events.
+     */
+    default LongEventSource mapToLong(IntToLongFunction fn) {
+        return subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.applyAsLong(event), subscription));
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped to {@code double} events.
+     */
+    default DoubleEventSource mapToDouble(IntToDoubleFunction fn) {
+        return subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.applyAsDouble(event), subscription));
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped to objects. The returned source
+     * is subscribed to this source while it has subscribers, and emits to them through a
+     * blocking {@link EventBus}; see {@link EventSource}.
+     */
+    default <F> EventSource<F> mapToObj(IntFunction<F> fn) {
+        return new BoxingSource<F>(subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.apply(event), subscription)));
+    }
+
+    /**
+     * Returns a source of the events of this source, boxed. See {@link #mapToObj(IntFunction)}.
+     */
+    default EventSource<Integer> boxed() {
+        return mapToObj(Integer::valueOf);
+    }
+
+    /**
+     * Forwards events to the specified recipient.
+     * @param recipient The recipient to forward events to.
+     * @return  This event source.
+     */
+    default IntEventSource forward(IntEventEmitter recipient) {
+        subscribe((event, subscription) -> recipient.emit(event));
+        return this;
+    }
+}
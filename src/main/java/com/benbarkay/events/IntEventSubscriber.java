@@ -0,0 +1,15 @@
+package com.benbarkay.events;
+
+/**
+ * A subscriber to {@code int} events. See {@link IntEventSource}.
+ */
+@FunctionalInterface
+public interface IntEventSubscriber {
+
+    /**
+     * Accepts an event.
+     * @param event         The event to accept.
+     * @param subscription  The subscription which triggered the event.
+     */
+    void accept(int event, EventSubscription subscription);
+}
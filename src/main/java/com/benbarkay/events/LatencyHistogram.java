@@ -0,0 +1,104 @@
+package com.benbarkay.events;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values, such as durations in nanoseconds, with a fixed
+ * relative precision. Values are counted in log-linear buckets, in the manner of
+ * HdrHistogram: each power of two is split into 16 buckets, so any recorded value is
+ * reported within about 6% of its actual value. Recording is lock-free and does not
+ * allocate, and the histogram occupies a fixed amount of memory regardless of the
+ * range of recorded values.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS >> 1;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final LongAdder total;
+
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+        total = new LongAdder();
+    }
+
+    /**
+     * Records a value. Negative values are recorded as {@code 0}.
+     */
+    public void record(long value) {
+        counts.incrementAndGet(index(Math.max(0, value)));
+        total.increment();
+    }
+
+    /**
+     * The number of recorded values.
+     */
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the value below which the specified percentage of recorded values fall.
+     * The returned value is the upper bound of the bucket containing that percentile.
+     * @param percentile    The percentile, between {@code 0} and {@code 100}.
+     * @return  The value at the specified percentile, or {@code 0} if no values were recorded.
+     */
+    public long valueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Returns the upper bound of the bucket of the highest recorded value, or {@code 0}
+     * if no values were recorded.
+     */
+    public long max() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return upperBound(i);
+            }
+        }
+        return 0;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // Values of each power of two above SUB_BUCKETS are split into HALF_SUB_BUCKETS
+        // buckets, by their SUB_BUCKET_BITS most significant bits.
+        int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - HALF_SUB_BUCKETS;
+        return SUB_BUCKETS + (shift - 1) * HALF_SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + 1;
+        long subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        long bound = ((subBucket + 1) << shift) - 1;
+        return bound < 0 ? Long.MAX_VALUE : bound;
+    }
+}
@@ -0,0 +1,55 @@
+package com.benbarkay.events;
+
+import java.util.function.Consumer;
+
+/**
+ * A bus of {@code long} events, which are delivered to subscribers on the emitting thread
+ * without boxing them or allocating. See {@link LongEventSource}.
+ *
+ * <p>Subscribers are delivered to in the order they subscribed. Exceptions thrown by a
+ * subscriber are reported to the error handlers of its subscription, and otherwise to
+ * those of this bus.
+ */
+public class LongEventBus extends PrimitiveEventBus<LongEventSubscriber> implements LongEventSource, LongEventEmitter {
+
+    public static LongEventBus create() {
+        return new LongEventBus();
+    }
+
+    private LongEventBus() {
+    }
+
+    @Override
+    public EventSubscription subscribe(LongEventSubscriber subscriber) {
+        return add(subscriber);
+    }
+
+    /**
+     * Adds an error handler to this bus. See {@link EventSource#error(Class, Consumer)}.
+     */
+    public <E extends Throwable> LongEventBus error(Class<E> type, Consumer<E> consumer) {
+        addErrorHandler(type, consumer);
+        return this;
+    }
+
+    /**
+     * Adds a catch-all error handler to this bus.
+     */
+    public LongEventBus error(Consumer<Throwable> consumer) {
+        return error(Throwable.class, consumer);
+    }
+
+    @Override
+    public void emit(long event) {
+        for (Subscription<LongEventSubscriber> subscription : subscriptions()) {
+            if (subscription.isCancelled()) {
+                continue;
+            }
+            try {
+                subscription.subscriber.accept(event, subscription);
+            } catch (Throwable t) {
+                subscription.fail(t);
+            }
+        }
+    }
+}
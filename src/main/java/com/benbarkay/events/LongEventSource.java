@@ -0,0 +1,114 @@
+package com.benbarkay.events;
+
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A source of {@code long} events, which are delivered without boxing them. See {@link LongEventBus}.
+ *
+ * <p>Events are delivered on the emitting thread. The sources derived through {@code map},
+ * {@code filter} and {@code peek} do not have subscriptions or buses of their own: subscribing
+ * to a derived source subscribes to this source with a subscriber which evaluates the stages
+ * before accepting each event, so that a chain of stages neither boxes nor allocates, and its
+ * subscriptions are the subscriptions of the source it derives from. Stages are therefore
+ * evaluated once per subscriber, and exceptions they throw are reported to the subscriptions
+ * they run within.
+ *
+ * <p>{@link #boxed()} and {@link #mapToObj(LongFunction)} convert this source to an
+ * {@link EventSource}, and {@link EventSource#mapToLong(java.util.function.ToLongFunction)}
+ * converts an {@code EventSource} to a {@code LongEventSource}.
+ */
+@FunctionalInterface
+public interface LongEventSource {
+
+    /**
+     * Subscribes to events of this source, which are delivered on the emitting thread.
+     * @param subscriber    The subscriber to subscribe.
+     * @return  The subscription of the subscriber.
+     */
+    EventSubscription subscribe(LongEventSubscriber subscriber);
+
+    /**
+     * Subscribes a consumer to events of this source.
+     */
+    default EventSubscription consume(LongConsumer consumer) {
+        return subscribe((event, subscription) -> consumer.accept(event));
+    }
+
+    /**
+     * Returns a source of the events of this source which match the specified predicate.
+     */
+    default LongEventSource filter(LongPredicate predicate) {
+        return subscriber -> subscribe((event, subscription) -> {
+            if (predicate.test(event)) {
+                subscriber.accept(event, subscription);
+            }
+        });
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped by the specified function.
+     */
+    default LongEventSource map(LongUnaryOperator fn) {
+        return subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.applyAsLong(event), subscription));
+    }
+
+    /**
+     * Returns a source of the events of this source, which are passed to the specified
+     * consumer before being accepted by subscribers.
+     */
+    default LongEventSource peek(LongConsumer consumer) {
+        return subscriber -> subscribe((event, subscription) -> {
+            consumer.accept(event);
+            subscriber.accept(event, subscription);
+        });
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped to {@code int} events.
+     */
+    default IntEventSource mapToInt(LongToIntFunction fn) {
+        return subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.applyAsInt(event), subscription));
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped to {@code double} events.
+     */
+    default DoubleEventSource mapToDouble(LongToDoubleFunction fn) {
+        return subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.applyAsDouble(event), subscription));
+    }
+
+    /**
+     * Returns a source of the events of this source, mapped to objects. The returned source
+     * is subscribed to this source while it has subscribers, and emits to them through a
+     * blocking {@link EventBus}; see {@link EventSource}.
+     */
+    default <F> EventSource<F> mapToObj(LongFunction<F> fn) {
+        return new BoxingSource<F>(subscriber -> subscribe((event, subscription) ->
+                subscriber.accept(fn.apply(event), subscription)));
+    }
+
+    /**
+     * Returns a source of the events of this source, boxed. See {@link #mapToObj(LongFunction)}.
+     */
+    default EventSource<Long> boxed() {
+        return mapToObj(Long::valueOf);
+    }
+
+    /**
+     * Forwards events to the specified recipient.
+     * @param recipient The recipient to forward events to.
+     * @return  This event source.
+     */
+    default LongEventSource forward(LongEventEmitter recipient) {
+        subscribe((event, subscription) -> recipient.emit(event));
+        return this;
+    }
+}
@@ -0,0 +1,15 @@
+package com.benbarkay.events;
+
+/**
+ * A subscriber to {@code long} events. See {@link LongEventSource}.
+ */
+@FunctionalInterface
+public interface LongEventSubscriber {
+
+    /**
+     * Accepts an event.
+     * @param event         The event to accept.
+     * @param subscription  The subscription which triggered the event.
+     */
+    void accept(long event, EventSubscription subscription);
+}
@@ -0,0 +1,356 @@
+package com.benbarkay.events;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A source derived through a stateful operator, such as {@code buffer} or {@code debounce}.
+ * An operator is created whenever this source connects upstream, and stopped once it
+ * disconnects, along with any task it scheduled. Timed operators share the tasks of
+ * {@link SharedScheduler}, rather than a timer each.
+ *
+ * <p>Events are emitted either on the thread accepting upstream events, or, when they are
+ * emitted by a timer, on the thread of the shared scheduler. In the latter case, subscribers
+ * of a blocking source accept events on the scheduler thread, and should be quick about it.
+ *
+ * @param <S>   The type of events emitted by the upstream source.
+ * @param <T>   The type of events emitted by this source.
+ */
+class OperatorSource<S, T> extends DerivedSource<S, T> {
+
+    private final Function<EventEmitter<T>, Operator<S>> operator;
+
+    private OperatorSource(EventSource<S> upstream, Function<EventEmitter<T>, Operator<S>> operator) {
+        super(upstream, upstream.executor(), EventBus.create(upstream.executor()));
+        this.operator = operator;
+    }
+
+    static <T> EventSource<List<T>> buffer(EventSource<T> upstream, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        return new OperatorSource<>(upstream, recipient -> new CountBuffer<>(count, recipient));
+    }
+
+    static <T> EventSource<List<T>> buffer(EventSource<T> upstream, long duration, TimeUnit unit) {
+        long period = positiveNanos(duration, unit);
+        return new OperatorSource<>(upstream, recipient -> new Window<>(period, period, recipient));
+    }
+
+    static <T> EventSource<List<T>> window(EventSource<T> upstream, long size, long step, TimeUnit unit) {
+        long sizeNanos = positiveNanos(size, unit);
+        long stepNanos = positiveNanos(step, unit);
+        return new OperatorSource<>(upstream, recipient -> new Window<>(sizeNanos, stepNanos, recipient));
+    }
+
+    static <T> EventSource<T> debounce(EventSource<T> upstream, long quiet, TimeUnit unit) {
+        long quietNanos = positiveNanos(quiet, unit);
+        return new OperatorSource<>(upstream, recipient -> new Debounce<>(quietNanos, recipient));
+    }
+
+    static <T> EventSource<T> throttle(EventSource<T> upstream, long interval, TimeUnit unit) {
+        long intervalNanos = positiveNanos(interval, unit);
+        return new OperatorSource<>(upstream, recipient -> new Throttle<>(intervalNanos, recipient));
+    }
+
+    static <T> EventSource<T> sample(EventSource<T> upstream, long interval, TimeUnit unit) {
+        long intervalNanos = positiveNanos(interval, unit);
+        return new OperatorSource<>(upstream, recipient -> new Sample<>(intervalNanos, recipient));
+    }
+
+    @Override
+    protected EventSubscriber<S> connected() {
+        Operator<S> connected = operator.apply(recipient);
+        connected.start();
+        return connected;
+    }
+
+    @Override
+    protected void disconnected(EventSubscriber<S> subscriber) {
+        ((Operator<S>) subscriber).stop();
+    }
+
+    private static long positiveNanos(long duration, TimeUnit unit) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("duration must be positive: " + duration);
+        }
+        return unit.toNanos(duration);
+    }
+
+    /**
+     * The subscriber of an operator to upstream events. Operators synchronize on themselves,
+     * as upstream events and timers may run concurrently, but emit outside of the lock.
+     */
+    private interface Operator<S> extends EventSubscriber<S> {
+
+        /**
+         * Called once the operator is connected, before it accepts any event.
+         */
+        default void start() {
+        }
+
+        /**
+         * Called once the operator is disconnected. Events accepted or timers fired
+         * afterwards are discarded.
+         */
+        default void stop() {
+        }
+    }
+
+    /**
+     * An operator which runs a task at a fixed rate while it is connected.
+     */
+    private abstract static class PeriodicOperator<S> implements Operator<S> {
+
+        private final long periodNanos;
+        private ScheduledFuture<?> task;
+
+        PeriodicOperator(long periodNanos) {
+            this.periodNanos = periodNanos;
+        }
+
+        protected abstract void tick();
+
+        @Override
+        public synchronized void start() {
+            task = SharedScheduler.get().scheduleAtFixedRate(
+                    this::tick, periodNanos, periodNanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public synchronized void stop() {
+            task.cancel(false);
+        }
+    }
+
+    private static class CountBuffer<T> implements Operator<T> {
+
+        private final int count;
+        private final EventEmitter<List<T>> recipient;
+        private List<T> buffer;
+
+        CountBuffer(int count, EventEmitter<List<T>> recipient) {
+            this.count = count;
+            this.recipient = recipient;
+            buffer = new ArrayList<>(count);
+        }
+
+        @Override
+        public void accept(T event, EventSubscription subscription) {
+            List<T> full;
+            synchronized (this) {
+                buffer.add(event);
+                if (buffer.size() < count) {
+                    return;
+                }
+                full = buffer;
+                buffer = new ArrayList<>(count);
+            }
+            recipient.emit(Collections.unmodifiableList(full));
+        }
+    }
+
+    /**
+     * Emits the events accepted within the last {@code size} nanoseconds, every {@code step}
+     * nanoseconds, unless there are none. Tumbling windows, such as buffers by time, are cleared
+     * once emitted instead, so that each event is emitted exactly once.
+     */
+    private static class Window<T> extends PeriodicOperator<T> {
+
+        private final long sizeNanos;
+        private final boolean tumbling;
+        private final EventEmitter<List<T>> recipient;
+        private final ArrayDeque<Timestamped<T>> events;
+
+        Window(long sizeNanos, long stepNanos, EventEmitter<List<T>> recipient) {
+            super(stepNanos);
+            this.sizeNanos = sizeNanos;
+            this.recipient = recipient;
+            tumbling = stepNanos == sizeNanos;
+            events = new ArrayDeque<>();
+        }
+
+        @Override
+        public void accept(T event, EventSubscription subscription) {
+            long now = System.nanoTime();
+            synchronized (this) {
+                events.add(new Timestamped<>(event, now));
+            }
+        }
+
+        @Override
+        protected void tick() {
+            List<T> window;
+            long now = System.nanoTime();
+            synchronized (this) {
+                // Tumbling windows hold exactly the events accepted since the last tick, which
+                // may be late; sliding and hopping windows evict events by their age.
+                while (!tumbling && !events.isEmpty() && now - events.peek().time > sizeNanos) {
+                    events.poll();
+                }
+                if (events.isEmpty()) {
+                    return;
+                }
+                window = new ArrayList<>(events.size());
+                for (Timestamped<T> timestamped : events) {
+                    window.add(timestamped.event);
+                }
+                if (tumbling) {
+                    events.clear();
+                }
+            }
+            recipient.emit(Collections.unmodifiableList(window));
+        }
+
+        @Override
+        public synchronized void stop() {
+            super.stop();
+            events.clear();
+        }
+    }
+
+    /**
+     * Emits an event once no other event was accepted for {@code quiet} nanoseconds after it.
+     * Rather than rescheduling on every event, a single task is scheduled at a time, which
+     * reschedules itself if events were accepted since it was scheduled.
+     */
+    private static class Debounce<T> implements Operator<T> {
+
+        private final long quietNanos;
+        private final EventEmitter<T> recipient;
+        private T latest;
+        private boolean pending;
+        private long deadline;
+        private ScheduledFuture<?> task;
+        private boolean stopped;
+
+        Debounce(long quietNanos, EventEmitter<T> recipient) {
+            this.quietNanos = quietNanos;
+            this.recipient = recipient;
+        }
+
+        @Override
+        public synchronized void accept(T event, EventSubscription subscription) {
+            latest = event;
+            pending = true;
+            deadline = System.nanoTime() + quietNanos;
+            if (task == null && !stopped) {
+                task = SharedScheduler.get().schedule(this::fire, quietNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void fire() {
+            T event;
+            synchronized (this) {
+                task = null;
+                if (!pending || stopped) {
+                    return;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining > 0) {
+                    task = SharedScheduler.get().schedule(this::fire, remaining, TimeUnit.NANOSECONDS);
+                    return;
+                }
+                event = latest;
+                latest = null;
+                pending = false;
+            }
+            recipient.emit(event);
+        }
+
+        @Override
+        public synchronized void stop() {
+            stopped = true;
+            latest = null;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Emits the first event accepted in each interval, and discards the others.
+     */
+    private static class Throttle<T> implements Operator<T> {
+
+        private final long intervalNanos;
+        private final EventEmitter<T> recipient;
+        private boolean started;
+        private long next;
+
+        Throttle(long intervalNanos, EventEmitter<T> recipient) {
+            this.intervalNanos = intervalNanos;
+            this.recipient = recipient;
+        }
+
+        @Override
+        public void accept(T event, EventSubscription subscription) {
+            long now = System.nanoTime();
+            synchronized (this) {
+                if (started && now - next < 0) {
+                    return;
+                }
+                started = true;
+                next = now + intervalNanos;
+            }
+            recipient.emit(event);
+        }
+    }
+
+    /**
+     * Emits the last event accepted in each interval, if any, at the end of the interval.
+     */
+    private static class Sample<T> extends PeriodicOperator<T> {
+
+        private final EventEmitter<T> recipient;
+        private T latest;
+        private boolean pending;
+
+        Sample(long intervalNanos, EventEmitter<T> recipient) {
+            super(intervalNanos);
+            this.recipient = recipient;
+        }
+
+        @Override
+        public synchronized void accept(T event, EventSubscription subscription) {
+            latest = event;
+            pending = true;
+        }
+
+        @Override
+        protected void tick() {
+            T event;
+            synchronized (this) {
+                if (!pending) {
+                    return;
+                }
+                event = latest;
+                latest = null;
+                pending = false;
+            }
+            recipient.emit(event);
+        }
+
+        @Override
+        public synchronized void stop() {
+            super.stop();
+            latest = null;
+            pending = false;
+        }
+    }
+
+    private static class Timestamped<T> {
+        private final T event;
+        private final long time;
+
+        Timestamped(T event, long time) {
+            this.event = event;
+            this.time = time;
+        }
+    }
+}
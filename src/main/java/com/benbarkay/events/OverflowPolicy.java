@@ -0,0 +1,35 @@
+package com.benbarkay.events;
+
+/**
+ * Determines what a bounded subscription does with an event when its buffer is full.
+ * See {@link EventSource#subscribe(EventSubscriber, java.util.concurrent.Executor, int, OverflowPolicy)}.
+ */
+public enum OverflowPolicy {
+    /**
+     * Blocks the emitting thread until there is room in the buffer. Room is reserved on the thread
+     * calling {@code emit}, before the event is queued on the executor of the bus, so that events
+     * yet to be dispatched count against the capacity as well.
+     *
+     * <p>Derived sources are emitted to by their stages, which are therefore the ones to block.
+     * Derived sources reject blocking subscriptions whose stages run on the executor that would
+     * make room for them: the executor of the source, or that of the subscription.
+     */
+    BLOCK,
+    /**
+     * Discards the event being emitted.
+     */
+    DROP_NEWEST,
+    /**
+     * Discards the oldest buffered event to make room for the event being emitted.
+     */
+    DROP_OLDEST,
+    /**
+     * Discards all buffered events, keeping only the event being emitted.
+     */
+    CONFLATE,
+    /**
+     * Discards the event being emitted, and reports an {@link EventOverflowException}
+     * to the subscription's error handlers.
+     */
+    FAIL
+}
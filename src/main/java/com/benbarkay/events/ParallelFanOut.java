@@ -0,0 +1,120 @@
+package com.benbarkay.events;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Hands each event to a snapshot of subscriptions in parallel, by recursively splitting the
+ * snapshot in halves until each half holds at most {@code chunkSize} subscriptions, and
+ * delivering to the chunks on a {@link ForkJoinPool}. Idle workers steal the halves which
+ * are yet to be split, so chunks whose subscribers are slow do not hold back the others.
+ *
+ * <p>Emitting returns once the event was handed to all subscriptions, so as long as events
+ * are emitted one at a time, each subscription receives them in order.
+ */
+final class ParallelFanOut {
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final EventTracer tracer;
+
+    ParallelFanOut(ForkJoinPool pool, int chunkSize, EventTracer tracer) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunk size must be positive: " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.tracer = tracer;
+    }
+
+    <T> void emit(EventBusSubscription<T>[] subscriptions, T event) {
+        if (subscriptions.length <= chunkSize) {
+            for (EventBusSubscription<T> subscription : subscriptions) {
+                subscription.emit(event);
+            }
+        } else {
+            invoke(new Chunk<>(subscriptions, 0, subscriptions.length, event, false, span()));
+        }
+    }
+
+    <T> void emitAll(EventBusSubscription<T>[] subscriptions, List<T> events) {
+        if (subscriptions.length <= chunkSize) {
+            for (EventBusSubscription<T> subscription : subscriptions) {
+                subscription.emitAll(events);
+            }
+        } else {
+            invoke(new Chunk<>(subscriptions, 0, subscriptions.length, events, true, span()));
+        }
+    }
+
+    private void invoke(Chunk<?> chunk) {
+        // Emitting from a worker of the pool forks onto it directly, rather than waiting on it.
+        if (ForkJoinTask.getPool() == pool) {
+            chunk.invoke();
+        } else {
+            pool.invoke(chunk);
+        }
+    }
+
+    /**
+     * The span of the emission, which is current on the emitting thread but not on the workers.
+     */
+    private EventTracer.Span span() {
+        return tracer == EventTracer.NONE ? null : tracer.current();
+    }
+
+    private class Chunk<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final EventBusSubscription<T>[] subscriptions;
+        private final int from;
+        private final int to;
+        private final Object event;
+        private final boolean batch;
+        private final EventTracer.Span span;
+
+        Chunk(EventBusSubscription<T>[] subscriptions, int from, int to, Object event, boolean batch, EventTracer.Span span) {
+            this.subscriptions = subscriptions;
+            this.from = from;
+            this.to = to;
+            this.event = event;
+            this.batch = batch;
+            this.span = span;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new Chunk<>(subscriptions, from, middle, event, batch, span),
+                        new Chunk<>(subscriptions, middle, to, event, batch, span));
+                return;
+            }
+            if (span == null) {
+                deliver();
+                return;
+            }
+            EventTracer.Span previous = tracer.attach(span);
+            try {
+                deliver();
+            } finally {
+                tracer.attach(previous);
+            }
+        }
+
+        // The event is a list of events of the subscriptions if this is a batch, or a single one.
+        @SuppressWarnings("unchecked")
+        private void deliver() {
+            for (int i = from; i < to; i++) {
+                if (batch) {
+                    subscriptions[i].emitAll((List<T>) event);
+                } else {
+                    subscriptions[i].emit((T) event);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.benbarkay.events;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A bus which partitions events by key onto a fixed number of lanes. Each lane delivers its
+ * events one at a time, in order, through its own queue on a shared executor, so events of
+ * the same key are always delivered in the order they were emitted, while events of keys on
+ * different lanes are delivered in parallel.
+ *
+ * <p>Subscribers are accepted on the thread of the lane delivering to them. The executor of this
+ * source is therefore the calling thread: {@code map}, {@code filter} and other derived sources
+ * run on the lanes as well, and preserve per-key order. Subscribing with another executor hands
+ * events off to that executor, which may reorder them.
+ *
+ * @param <K>   The type of the keys events are partitioned by.
+ * @param <T>   The type of events emitted by this bus.
+ */
+public class PartitionedEventBus<K, T> implements EventSource<T>, EventEmitter<T> {
+
+    /**
+     * Creates a partitioned bus.
+     * @param keyExtractor  Extracts the key of an event.
+     * @param lanes         The number of lanes to partition events onto.
+     * @param executor      The executor on which the lanes deliver events.
+     */
+    public static <K, T> PartitionedEventBus<K, T> create(
+            Function<T, K> keyExtractor,
+            int lanes,
+            Executor executor) {
+        return new PartitionedEventBus<>(keyExtractor, lanes, executor);
+    }
+
+    private final Function<T, K> keyExtractor;
+    private final SerialExecutor[] queues;
+    private final EventBus<T>[] lanes;
+    private final AtomicLongArray emitted;
+
+    private PartitionedEventBus(Function<T, K> keyExtractor, int lanes, Executor executor) {
+        if (lanes <= 0) {
+            throw new IllegalArgumentException("lanes must be positive: " + lanes);
+        }
+        this.keyExtractor = keyExtractor;
+        queues = new SerialExecutor[lanes];
+        // Generic arrays cannot be created, and the lanes are only ever given buses of T.
+        @SuppressWarnings("unchecked")
+        EventBus<T>[] buses = (EventBus<T>[]) new EventBus<?>[lanes];
+        this.lanes = buses;
+        for (int i = 0; i < lanes; i++) {
+            queues[i] = new SerialExecutor(executor);
+            this.lanes[i] = EventBus.create(queues[i]);
+        }
+        emitted = new AtomicLongArray(lanes);
+    }
+
+    /**
+     * The calling thread, which for subscribers and derived sources is the delivering lane.
+     */
+    @Override
+    public Executor executor() {
+        return EventBus.DIRECT_EXECUTOR;
+    }
+
+    /**
+     * Subscribes to the events of all keys.
+     */
+    @Override
+    public EventSubscription subscribe(EventSubscriber<T> subscriber, Executor executor) {
+        EventSubscription[] subscriptions = new EventSubscription[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            subscriptions[i] = lanes[i].subscribe(subscriber, executor);
+        }
+        return new CompositeSubscription(subscriptions);
+    }
+
+    /**
+     * Subscribes to the events of all keys, with a bounded buffer on each lane.
+     * Demand requested from the returned subscription is requested from every lane.
+     */
+    @Override
+    public EventSubscription subscribe(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        EventSubscription[] subscriptions = new EventSubscription[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            subscriptions[i] = lanes[i].subscribe(subscriber, executor, capacity, policy);
+        }
+        return new CompositeSubscription(subscriptions);
+    }
+
+    /**
+     * Subscribes to the events of all keys on demand, with a bounded buffer on each lane.
+     * Demand requested from the returned subscription is requested from every lane.
+     */
+    @Override
+    public EventSubscription subscribeOnDemand(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        EventSubscription[] subscriptions = new EventSubscription[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            subscriptions[i] = lanes[i].subscribeOnDemand(subscriber, executor, capacity, policy);
+        }
+        return new CompositeSubscription(subscriptions);
+    }
+
+    /**
+     * Subscribes to the events of all keys, with a conflating buffer on each lane.
+     * Events are conflated by the specified key, regardless of the key they are partitioned by.
+     */
+    @Override
+    public <C> EventSubscription subscribeConflating(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            Function<T, C> keyExtractor) {
+        EventSubscription[] subscriptions = new EventSubscription[lanes.length];
+        for (int i = 0; i < lanes.length; i++) {
+            subscriptions[i] = lanes[i].subscribeConflating(subscriber, executor, keyExtractor);
+        }
+        return new CompositeSubscription(subscriptions);
+    }
+
+    /**
+     * Returns a source of the events of a single key, delivered in order on the key's lane.
+     * @param key   The key of the events to receive.
+     * @return  A source of the events of the specified key.
+     */
+    public EventSource<T> partition(K key) {
+        return lanes[lane(key)].filter(e -> key.equals(keyExtractor.apply(e)), EventBus.DIRECT_EXECUTOR);
+    }
+
+    @Override
+    public <E extends Throwable> EventSource<T> error(Class<E> type, Consumer<E> consumer) {
+        for (EventBus<T> lane : lanes) {
+            lane.error(type, consumer);
+        }
+        return this;
+    }
+
+    @Override
+    public void emit(T event) {
+        int lane = lane(keyExtractor.apply(event));
+        emitted.incrementAndGet(lane);
+        lanes[lane].emit(event);
+    }
+
+    @Override
+    public void error(Throwable t) {
+        // All lanes share the same error consumers.
+        lanes[0].error(t);
+    }
+
+    @Override
+    public boolean hasSubscribers() {
+        for (EventBus<T> lane : lanes) {
+            if (lane.hasSubscribers()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The number of lanes of this bus.
+     */
+    public int lanes() {
+        return lanes.length;
+    }
+
+    /**
+     * The number of events emitted onto the specified lane.
+     */
+    public long emitted(int lane) {
+        return emitted.get(lane);
+    }
+
+    /**
+     * The number of events and deliveries queued on the specified lane which have yet to complete.
+     */
+    public int pending(int lane) {
+        return queues[lane].pending();
+    }
+
+    /**
+     * The skew of the distribution of events between lanes: the number of events emitted onto
+     * the busiest lane, divided by the mean number of events per lane. A perfectly balanced bus
+     * has a skew of {@code 1}; a bus with all events on a single lane has a skew equal to its
+     * number of lanes. Returns {@code 0} if no events have been emitted.
+     */
+    public double skew() {
+        long max = 0;
+        long total = 0;
+        for (int i = 0; i < emitted.length(); i++) {
+            long count = emitted.get(i);
+            max = Math.max(max, count);
+            total += count;
+        }
+        return total == 0 ? 0 : (double) max * emitted.length() / total;
+    }
+
+    private int lane(K key) {
+        int hash = key == null ? 0 : key.hashCode();
+        // Spread the higher bits, as keys often differ only in them.
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, lanes.length);
+    }
+}
@@ -0,0 +1,216 @@
+package com.benbarkay.events;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A source derived from an upstream source through a chain of {@code map}, {@code filter}
+ * and {@code peek} stages. Adjacent stages that run on the same executor are fused: they
+ * are evaluated one after the other by a single upstream subscription, rather than through
+ * an intermediate {@link EventBus} and subscription per stage.
+ *
+ * <p>Like other derived sources, a pipeline is only subscribed upstream while it has
+ * subscribers, so an abandoned chain stops evaluating its stages right away rather than
+ * once it is garbage collected. Stages derived from this source while it is not
+ * connected are fused into their own pipeline, so a chain that branches before being
+ * subscribed to evaluates the shared stages once per branch.
+ *
+ * @param <S>   The type of events emitted by the upstream source.
+ * @param <T>   The type of events emitted by this source.
+ */
+class PipelineSource<S, T> extends DerivedSource<S, T> {
+
+    /**
+     * Returned by a stage in order to stop an event from reaching the following stages.
+     */
+    private static final Object DROPPED = new Object();
+
+    private final EventSource<S> upstream;
+    private final Executor stageExecutor;
+    private final Stage[] stages;
+    private final String[] stageNames;
+    private final EventEmitter<?>[] stageOutputs;
+
+    private PipelineSource(
+            EventSource<S> upstream,
+            Executor stageExecutor,
+            Stage[] stages,
+            String[] stageNames,
+            EventEmitter<?>[] stageOutputs,
+            EventBus<T> recipient) {
+        super(upstream, stageExecutor, recipient);
+        this.upstream = upstream;
+        this.stageExecutor = stageExecutor;
+        this.stages = stages;
+        this.stageNames = stageNames;
+        this.stageOutputs = stageOutputs;
+    }
+
+    static <T> EventSource<T> filter(EventSource<T> upstream, Predicate<T> predicate, Executor executor) {
+        return start(upstream, executor, filterStage(predicate), "filter");
+    }
+
+    static <T, F> EventSource<F> map(EventSource<T> upstream, Function<T, F> fn, Executor executor) {
+        return start(upstream, executor, mapStage(fn), "map");
+    }
+
+    static <T> EventSource<T> peek(EventSource<T> upstream, Consumer<T> consumer, Executor executor) {
+        return start(upstream, executor, peekStage(consumer), "peek");
+    }
+
+    @Override
+    protected EventSubscriber<S> connected() {
+        return new PipelineSubscriber<>(stages, stageNames, stageOutputs, recipient);
+    }
+
+    @Override
+    public EventSource<T> filter(Predicate<T> predicate, Executor executor) {
+        if (!canFuse(executor)) {
+            return super.filter(predicate, executor);
+        }
+        return then(filterStage(predicate), "filter");
+    }
+
+    @Override
+    public <F> EventSource<F> map(Function<T, F> fn, Executor executor) {
+        if (!canFuse(executor)) {
+            return super.map(fn, executor);
+        }
+        return then(mapStage(fn), "map");
+    }
+
+    @Override
+    public EventSource<T> peek(Consumer<T> consumer, Executor executor) {
+        if (!canFuse(executor)) {
+            return super.peek(consumer, executor);
+        }
+        return then(peekStage(consumer), "peek");
+    }
+
+    private boolean canFuse(Executor executor) {
+        // Once connected, this source is a regular bus with its own subscribers;
+        // further stages subscribe to it so as not to evaluate this pipeline twice.
+        return executor == stageExecutor && !isConnected();
+    }
+
+    private <F> PipelineSource<S, F> then(Stage stage, String name) {
+        EventBus<F> next = EventBus.create(executor());
+        Stage[] nextStages = Arrays.copyOf(stages, stages.length + 1);
+        nextStages[stages.length] = stage;
+        String[] nextNames = Arrays.copyOf(stageNames, stageNames.length + 1);
+        nextNames[stageNames.length] = name;
+        EventEmitter<?>[] nextOutputs = Arrays.copyOf(stageOutputs, stageOutputs.length + 1);
+        nextOutputs[stageOutputs.length] = next;
+        return new PipelineSource<>(upstream, stageExecutor, nextStages, nextNames, nextOutputs, next);
+    }
+
+    private static <T, F> PipelineSource<T, F> start(
+            EventSource<T> upstream,
+            Executor executor,
+            Stage stage,
+            String name) {
+        EventBus<F> recipient = EventBus.create(upstream.executor());
+        return new PipelineSource<>(
+                upstream,
+                executor,
+                new Stage[] { stage },
+                new String[] { name },
+                new EventEmitter<?>[] { recipient },
+                recipient);
+    }
+
+    // Each stage is only applied to the events produced by the stage before it.
+    @SuppressWarnings("unchecked")
+    private static <T> Stage filterStage(Predicate<T> predicate) {
+        return (event) -> predicate.test((T) event) ? event : DROPPED;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T, F> Stage mapStage(Function<T, F> fn) {
+        return (event) -> fn.apply((T) event);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Stage peekStage(Consumer<T> consumer) {
+        return (event) -> {
+            consumer.accept((T) event);
+            return event;
+        };
+    }
+
+    /**
+     * A single fused stage of a pipeline.
+     */
+    private interface Stage {
+        /**
+         * Applies this stage to an event.
+         * @param event The event produced by the previous stage.
+         * @return  The event to pass to the next stage, or {@link #DROPPED}.
+         */
+        Object apply(Object event);
+    }
+
+    /**
+     * Evaluates the stages of a pipeline for each upstream event. Unlike other forwarding
+     * subscribers, this subscriber refers to its recipient strongly: it is only subscribed
+     * while the recipient has subscribers, which are bound to refer to it anyway.
+     */
+    private static class PipelineSubscriber<S, T> implements EventSubscriber<S> {
+
+        private final Stage[] stages;
+        private final String[] stageNames;
+        private final EventEmitter<?>[] stageOutputs;
+        private final EventEmitter<T> recipient;
+        private final EventTracer tracer;
+
+        PipelineSubscriber(
+                Stage[] stages,
+                String[] stageNames,
+                EventEmitter<?>[] stageOutputs,
+                EventEmitter<T> recipient) {
+            this.recipient = recipient;
+            this.stages = stages;
+            this.stageNames = stageNames;
+            this.stageOutputs = stageOutputs;
+            tracer = EventTracing.tracer();
+        }
+
+        @Override
+        public void accept(S event, EventSubscription subscription) {
+            Object value = event;
+            for (int i = 0; i < stages.length; i++) {
+                try {
+                    value = tracer == EventTracer.NONE ? stages[i].apply(value) : applyTraced(i, value);
+                } catch (Throwable t) {
+                    // Errors are reported to the source produced by the failing stage,
+                    // just as they would be had each stage been subscribed separately.
+                    stageOutputs[i].error(t);
+                    return;
+                }
+                if (value == DROPPED) {
+                    return;
+                }
+            }
+            // The last stage produces the events of this pipeline.
+            @SuppressWarnings("unchecked")
+            T output = (T) value;
+            recipient.emit(output);
+        }
+
+        /**
+         * Applies a stage within a span of its own, child of the delivery to this pipeline,
+         * so that fused stages are told apart in traces just as unfused ones would be.
+         */
+        private Object applyTraced(int stage, Object value) {
+            EventTracer.Span span = tracer.start(stageNames[stage], tracer.current());
+            try {
+                return stages[stage].apply(value);
+            } finally {
+                span.end();
+            }
+        }
+    }
+}
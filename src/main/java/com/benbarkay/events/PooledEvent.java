@@ -0,0 +1,104 @@
+package com.benbarkay.events;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A mutable event which is recycled through an {@link EventPool}, rather than allocated per
+ * emission. Pooled events are acquired from their pool, filled in, and emitted to a bus
+ * created through {@link EventBus#pooled(java.util.concurrent.Executor)}, which returns them
+ * to their pool once every subscription has processed them.
+ *
+ * <p>An event is only valid while it is being accepted by a subscriber. Subscribers which
+ * keep an event beyond that, for instance in order to process it on another thread, must
+ * {@link #retain()} it while accepting it, and {@link #release()} it once done with it.
+ *
+ * <p>Events are reference counted: acquiring an event holds a reference on behalf of the
+ * emitter, which the bus releases once it has dispatched the event, and the bus holds another
+ * reference for each subscription it dispatches the event to, which is released once the
+ * subscription has delivered or discarded the event. Once the last reference is released,
+ * the event is {@link #reset()} and returned to its pool. Events which were not acquired from
+ * a pool, such as events created directly, are not reference counted.
+ */
+public abstract class PooledEvent {
+
+    private static final AtomicIntegerFieldUpdater<PooledEvent> REFERENCES =
+            AtomicIntegerFieldUpdater.newUpdater(PooledEvent.class, "references");
+
+    private volatile int references;
+    private volatile boolean released;
+    private EventPool<?> pool;
+
+    /**
+     * Keeps this event from being returned to its pool until it is released.
+     * @throws IllegalStateException    If this event was already released to its pool.
+     */
+    public final void retain() {
+        retain(1);
+    }
+
+    /**
+     * Releases a reference to this event, returning it to its pool once no references remain.
+     * @throws IllegalStateException    If this event was released more times than it was retained.
+     */
+    public final void release() {
+        if (pool == null) {
+            return;
+        }
+        int remaining = REFERENCES.decrementAndGet(this);
+        if (remaining == 0) {
+            released = true;
+            pool.recycle(this);
+        } else if (remaining < 0) {
+            REFERENCES.incrementAndGet(this);
+            throw new IllegalStateException("event was released more times than it was retained");
+        }
+    }
+
+    /**
+     * Throws if this event was released to its pool and not acquired again since. Accessors of
+     * subclasses may call this in order to detect events used after their release; a pool
+     * created through {@link EventPool#debug(java.util.function.Supplier)} never reuses
+     * events, so that every such use is detected.
+     * @throws IllegalStateException    If this event was released.
+     */
+    protected final void checkNotReleased() {
+        if (released) {
+            throw new IllegalStateException("event was used after it was released to its pool");
+        }
+    }
+
+    /**
+     * Clears the state of this event before it is returned to its pool. Does nothing by default.
+     */
+    protected void reset() {
+    }
+
+    void retain(int n) {
+        if (pool == null) {
+            return;
+        }
+        int current;
+        do {
+            current = references;
+            if (current <= 0) {
+                throw new IllegalStateException("event was used after it was released to its pool");
+            }
+        } while (!REFERENCES.compareAndSet(this, current, current + n));
+    }
+
+    /**
+     * Throws if this event of a debug pool was released, so that emitting it again fails on the
+     * emitting thread rather than on the thread dispatching it.
+     */
+    void checkEmittable() {
+        if (pool != null && pool.isDebug() && references <= 0) {
+            throw new IllegalStateException("event was emitted after it was released to its pool");
+        }
+    }
+
+    void acquired(EventPool<?> pool) {
+        this.pool = pool;
+        released = false;
+        references = 1;
+    }
+}
@@ -0,0 +1,122 @@
+package com.benbarkay.events;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * The subscriptions and error handling shared by the primitive buses. Subclasses dispatch
+ * their events to the subscribers of {@link #subscriptions()} on the emitting thread, and
+ * report the errors their subscribers throw to {@link Subscription#fail(Throwable)}.
+ * @param <S>   The type of subscribers of the bus.
+ */
+abstract class PrimitiveEventBus<S> {
+
+    private static final Subscription<?>[] NO_SUBSCRIPTIONS = new Subscription<?>[0];
+
+    private final AtomicReference<Subscription<S>[]> subscriptions;
+    private final ErrorHandler errorHandler;
+
+    PrimitiveEventBus() {
+        subscriptions = new AtomicReference<>(noSubscriptions());
+        errorHandler = new ErrorHandler(EventBus.DEFAULT_EXCEPTION_HANDLER);
+    }
+
+    /**
+     * The current subscriptions. The array is never mutated once published, so iterating
+     * over it is safe even while subscriptions are being added or removed.
+     */
+    final Subscription<S>[] subscriptions() {
+        return subscriptions.get();
+    }
+
+    final EventSubscription add(S subscriber) {
+        Subscription<S> subscription = new Subscription<>(subscriber, this, errorHandler.forkChild());
+        Subscription<S>[] current;
+        Subscription<S>[] updated;
+        do {
+            current = subscriptions.get();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = subscription;
+        } while (!subscriptions.compareAndSet(current, updated));
+        return subscription;
+    }
+
+    final <E extends Throwable> void addErrorHandler(Class<E> type, Consumer<E> consumer) {
+        errorHandler.error(type, consumer);
+    }
+
+    /**
+     * Emits the specified error to the error handlers of this bus.
+     */
+    public void error(Throwable t) {
+        errorHandler.error(t);
+    }
+
+    /**
+     * Whether or not this bus has any subscribers.
+     */
+    public boolean hasSubscribers() {
+        return subscriptions.get().length > 0;
+    }
+
+    private void remove(Subscription<S> subscription) {
+        Subscription<S>[] current;
+        Subscription<S>[] updated;
+        do {
+            current = subscriptions.get();
+            int index = Arrays.asList(current).indexOf(subscription);
+            if (index < 0) {
+                return;
+            }
+            updated = current.length == 1
+                    ? noSubscriptions()
+                    : Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!subscriptions.compareAndSet(current, updated));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <S> Subscription<S>[] noSubscriptions() {
+        // The empty array holds no subscriptions of any type.
+        return (Subscription<S>[]) NO_SUBSCRIPTIONS;
+    }
+
+    static final class Subscription<S> implements EventSubscription {
+        final S subscriber;
+        private final PrimitiveEventBus<S> bus;
+        private final ErrorHandler handler;
+        private final AtomicBoolean cancelled;
+
+        Subscription(S subscriber, PrimitiveEventBus<S> bus, ErrorHandler handler) {
+            this.subscriber = subscriber;
+            this.bus = bus;
+            this.handler = handler;
+            cancelled = new AtomicBoolean(false);
+        }
+
+        boolean isCancelled() {
+            return cancelled.get();
+        }
+
+        void fail(Throwable t) {
+            handler.error(t);
+        }
+
+        @Override
+        public <E extends Throwable> EventSubscription error(Class<E> type, Consumer<E> consumer) {
+            handler.error(type, consumer);
+            return this;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!cancelled.compareAndSet(false, true)) {
+                return false;
+            }
+            bus.remove(this);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.benbarkay.events;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Exposes a Reactive Streams {@link Publisher} as an {@link EventSource}. Like other derived
+ * sources, it is only subscribed to the publisher while it has subscribers: it subscribes once
+ * it is first subscribed to, and cancels the publisher's subscription as soon as its last
+ * subscription is cancelled; subscribing to it again subscribes to the publisher anew.
+ *
+ * <p>Items are requested {@code prefetch} at a time, and more are only requested once the items
+ * already received have been dispatched by this source's executor, so at most {@code prefetch}
+ * items are ever queued on it. Errors signalled by the publisher are reported to this source's
+ * error handlers, and completion is ignored.
+ * @param <T>   The type of events emitted by this source.
+ */
+class PublisherEventSource<T> extends DerivedSource<T, T> {
+
+    PublisherEventSource(Publisher<T> publisher, Executor executor, int prefetch) {
+        this(publisher, executor, prefetch, EventBus.create(executor));
+    }
+
+    private PublisherEventSource(Publisher<T> publisher, Executor executor, int prefetch, EventBus<T> recipient) {
+        // Publishers signal on threads of their own, which this source knows nothing of.
+        super(connector(publisher, recipient, prefetch), executor, EventBus.DIRECT_EXECUTOR, recipient);
+    }
+
+    private static <T> Function<EventSubscriber<T>, EventSubscription> connector(
+            Publisher<T> publisher,
+            EventBus<T> recipient,
+            int prefetch) {
+        if (prefetch <= 0) {
+            throw new IllegalArgumentException("prefetch must be positive: " + prefetch);
+        }
+        return subscriber -> {
+            RelayingSubscriber<T> relay = new RelayingSubscriber<>(
+                    subscriber, recipient::error, recipient.executor(), prefetch);
+            publisher.subscribe(relay);
+            return relay;
+        };
+    }
+
+    @Override
+    protected EventSubscriber<T> connected() {
+        return (event, subscription) -> recipient.emit(event);
+    }
+
+    /**
+     * Hands the items of a publisher to a subscriber, requesting more of them as those already
+     * handed over are dispatched. Cancelling it cancels the publisher's subscription, or does so
+     * once the publisher subscribes it if it has yet to.
+     */
+    static class RelayingSubscriber<T> implements Subscriber<T>, EventSubscription {
+
+        private final EventSubscriber<T> subscriber;
+        private final ErrorHandler errorHandler;
+        private final Executor executor;
+        private final int prefetch;
+        private final Runnable dispatched = this::dispatched;
+        private Subscription subscription;
+        private volatile boolean cancelled;
+        private int received;
+
+        /**
+         * @param subscriber    The subscriber to hand items to.
+         * @param errors        Receives errors signalled by the publisher, and those thrown by
+         *                      the subscriber, which have no handler of their own.
+         * @param executor      The executor dispatching the items handed to the subscriber.
+         * @param prefetch      The number of items to request ahead of their dispatch.
+         */
+        RelayingSubscriber(EventSubscriber<T> subscriber, Consumer<Throwable> errors, Executor executor, int prefetch) {
+            this.subscriber = subscriber;
+            this.errorHandler = new ErrorHandler(errors);
+            this.executor = executor;
+            this.prefetch = prefetch;
+        }
+
+        @Override
+        public synchronized void onSubscribe(Subscription subscription) {
+            Objects.requireNonNull(subscription, "subscription");
+            if (this.subscription != null || cancelled) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(T item) {
+            Objects.requireNonNull(item, "item");
+            if (cancelled) {
+                return;
+            }
+            try {
+                subscriber.accept(item, this);
+            } catch (Throwable t) {
+                errorHandler.error(t);
+            }
+            // Queued after the event itself, so that it runs once the event was dispatched.
+            executor.execute(dispatched);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            Objects.requireNonNull(t, "throwable");
+            errorHandler.error(t);
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public <E extends Throwable> EventSubscription error(Class<E> type, Consumer<E> consumer) {
+            errorHandler.error(type, consumer);
+            return this;
+        }
+
+        @Override
+        public synchronized boolean cancel() {
+            if (cancelled) {
+                return false;
+            }
+            cancelled = true;
+            if (subscription != null) {
+                subscription.cancel();
+            }
+            return true;
+        }
+
+        private synchronized void dispatched() {
+            if (cancelled) {
+                return;
+            }
+            // Replenish in batches of half the prefetch, rather than one item at a time.
+            int limit = prefetch - (prefetch >> 1);
+            if (++received == limit) {
+                received = 0;
+                subscription.request(limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.benbarkay.events;
+
+import org.reactivestreams.Publisher;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Adapters between event sources and Reactive Streams publishers. Publishers of
+ * {@code java.util.concurrent.Flow} can be adapted through
+ * {@code org.reactivestreams.FlowAdapters}.
+ */
+public final class ReactiveStreams {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private ReactiveStreams() {
+    }
+
+    /**
+     * Exposes an event source as a publisher. Each subscriber of the returned publisher
+     * receives events only as it requests them, and events emitted before they are requested
+     * are buffered. Cancelling a subscription to the publisher cancels the underlying
+     * {@link EventSubscription}.
+     * @param source    The source to publish the events of.
+     * @param executor  The executor upon which to signal subscribers.
+     * @param capacity  The maximum number of events buffered for each subscriber.
+     * @param policy    The policy to apply when a subscriber's buffer is full. With
+     *                  {@link OverflowPolicy#FAIL}, the subscriber is signalled an
+     *                  {@link EventOverflowException} and its subscription is cancelled.
+     * @param <T>   The type of published events.
+     * @return  A publisher of the events of the specified source.
+     */
+    public static <T> Publisher<T> toPublisher(
+            EventSource<T> source,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        return new EventPublisher<>(source, executor, capacity, policy);
+    }
+
+    /**
+     * Exposes an event source as a publisher, signalling on the source's executor and failing
+     * subscribers which fall more than 256 events behind their demand. See
+     * {@link #toPublisher(EventSource, Executor, int, OverflowPolicy)} for more information.
+     */
+    public static <T> Publisher<T> toPublisher(EventSource<T> source) {
+        return toPublisher(source, source.executor(), DEFAULT_CAPACITY, OverflowPolicy.FAIL);
+    }
+
+    /**
+     * Exposes a publisher as an event source. The publisher is subscribed to when the source
+     * is first subscribed to, and at most {@code prefetch} of its items are requested ahead of
+     * their dispatch on the specified executor. Errors signalled by the publisher are reported
+     * to the source's error handlers. The subscription to the publisher is cancelled once the
+     * source no longer has any subscribers.
+     * @param publisher The publisher to adapt.
+     * @param executor  The executor of the returned source.
+     * @param prefetch  The number of items to request from the publisher ahead of their dispatch.
+     * @param <T>   The type of events emitted by the returned source.
+     * @return  A source of the items of the specified publisher.
+     */
+    public static <T> EventSource<T> toEventSource(Publisher<T> publisher, Executor executor, int prefetch) {
+        return new PublisherEventSource<>(publisher, executor, prefetch);
+    }
+
+    /**
+     * Exposes a publisher as a blocking event source, requesting items one at a time.
+     * See {@link #toEventSource(Publisher, Executor, int)} for more information.
+     */
+    public static <T> EventSource<T> toEventSource(Publisher<T> publisher) {
+        return toEventSource(publisher, EventBus.DIRECT_EXECUTOR, 1);
+    }
+}
@@ -0,0 +1,22 @@
+package com.benbarkay.events;
+
+/**
+ * Relays the events of a source through a bus of its own, which provides the subscriptions
+ * the source does not: bounded, on-demand and conflating subscriptions of sources which only
+ * implement {@link EventSource#subscribe(EventSubscriber, java.util.concurrent.Executor)}.
+ * Events are relayed on the thread delivering them, and like other derived sources, the
+ * upstream subscription is only made while this source has subscribers.
+ *
+ * @param <T>   The type of relayed events.
+ */
+class RelaySource<T> extends DerivedSource<T, T> {
+
+    RelaySource(EventSource<T> upstream) {
+        super(upstream, EventBus.DIRECT_EXECUTOR, EventBus.blocking());
+    }
+
+    @Override
+    protected EventSubscriber<T> connected() {
+        return (event, subscription) -> recipient.emit(event);
+    }
+}
@@ -0,0 +1,325 @@
+package com.benbarkay.events;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A bus which replays recently emitted events to new subscribers before delivering the events
+ * emitted from then on. Recent events are held in a lock-free ring, so emitting does not
+ * allocate. Each subscriber receives the events held by the ring at the time it subscribed,
+ * followed by every event emitted since, without gaps or duplicates between the two, even
+ * while events are being emitted concurrently.
+ *
+ * <p>Events are recorded and handed to subscriptions on the emitting thread; the executor of
+ * this bus is the default executor subscribers accept events on. Replayed events are handed to
+ * a new subscription on the subscribing thread, before {@code subscribe} returns.
+ *
+ * @param <T>   The type of events emitted by this bus.
+ */
+public class ReplayEventBus<T> implements EventSource<T>, EventEmitter<T> {
+
+    /**
+     * Creates a bus which replays its last event, if any, to new subscribers.
+     * @param executor  The default executor of subscribers.
+     */
+    public static <T> ReplayEventBus<T> lastValue(Executor executor) {
+        return new ReplayEventBus<>(executor, new ReplayRing<>(1, Long.MAX_VALUE));
+    }
+
+    /**
+     * Creates a bus which replays up to its last {@code count} events to new subscribers.
+     * @param executor  The default executor of subscribers.
+     * @param count     The maximum number of events to replay.
+     */
+    public static <T> ReplayEventBus<T> replay(Executor executor, int count) {
+        return new ReplayEventBus<>(executor, new ReplayRing<>(count, Long.MAX_VALUE));
+    }
+
+    /**
+     * Creates a bus which replays the events emitted within a window of time to new subscribers.
+     * @param executor  The default executor of subscribers.
+     * @param count     The maximum number of events to replay, regardless of the window.
+     * @param window    The time, before subscribing, within which replayed events were emitted.
+     * @param unit      The unit of {@code window}.
+     */
+    public static <T> ReplayEventBus<T> replay(Executor executor, int count, long window, TimeUnit unit) {
+        return new ReplayEventBus<>(executor, new ReplayRing<>(count, unit.toNanos(window)));
+    }
+
+    private static final ReplayEventBus<?>.Replay[] NO_REPLAYS = new ReplayEventBus<?>.Replay[0];
+
+    private final Executor executor;
+    private final EventHistory<T> history;
+    private final AtomicReference<Replay[]> replays;
+    private final ErrorHandler errorHandler;
+
+    ReplayEventBus(Executor executor, EventHistory<T> history) {
+        this.executor = executor;
+        this.history = history;
+        replays = new AtomicReference<>(noReplays());
+        errorHandler = new ErrorHandler(EventBus.DEFAULT_EXCEPTION_HANDLER);
+    }
+
+    @Override
+    public Executor executor() {
+        return executor;
+    }
+
+    @Override
+    public EventSubscription subscribe(EventSubscriber<T> subscriber, Executor executor) {
+        return subscribe(0, bus -> bus.subscribe(subscriber, executor));
+    }
+
+    @Override
+    public EventSubscription subscribe(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        return subscribe(0, bus -> bus.subscribe(subscriber, executor, capacity, policy));
+    }
+
+    /**
+     * Subscribes on demand. Replayed events are buffered until they are requested, and are
+     * subject to the overflow policy like any other event.
+     */
+    @Override
+    public EventSubscription subscribeOnDemand(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        return subscribe(0, bus -> bus.subscribeOnDemand(subscriber, executor, capacity, policy));
+    }
+
+    /**
+     * Subscribes through a conflating buffer. Replayed events are conflated as well, so a
+     * slow subscriber may only accept the latest replayed event of each key.
+     */
+    @Override
+    public <K> EventSubscription subscribeConflating(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            Function<T, K> keyExtractor) {
+        return subscribe(0, bus -> bus.subscribeConflating(subscriber, executor, keyExtractor));
+    }
+
+    @Override
+    public <E extends Throwable> EventSource<T> error(Class<E> type, Consumer<E> consumer) {
+        errorHandler.error(type, consumer);
+        return this;
+    }
+
+    @Override
+    public void emit(T event) {
+        long sequence = history.append(event);
+        for (Replay replay : replays.get()) {
+            replay.emit(event, sequence);
+        }
+    }
+
+    @Override
+    public void error(Throwable t) {
+        errorHandler.error(t);
+    }
+
+    @Override
+    public boolean hasSubscribers() {
+        return replays.get().length > 0;
+    }
+
+    /**
+     * Returns a source which replays events starting at the specified sequence, rather than
+     * from the oldest event held by the history of this bus.
+     */
+    EventSource<T> since(long from) {
+        return new Since(from);
+    }
+
+    /**
+     * Subscribes to the private bus of a new replay, and starts the replay.
+     * @param from          The sequence of the first event to replay.
+     * @param subscribe     Subscribes to the private bus of the replay.
+     */
+    private EventSubscription subscribe(long from, Function<EventBus<T>, EventSubscription> subscribe) {
+        Replay replay = new Replay(from);
+        EventSubscription subscription = subscribe.apply(replay.bus);
+        replay.bus.onLastUnsubscribe(() -> remove(replay));
+        add(replay);
+        if (!replay.bus.hasSubscribers()) {
+            // Cancelled before it was added, in which case the hook had nothing to remove.
+            remove(replay);
+        }
+        replay.start();
+        return subscription;
+    }
+
+    private void add(Replay replay) {
+        Replay[] current;
+        Replay[] updated;
+        do {
+            current = replays.get();
+            updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = replay;
+        } while (!replays.compareAndSet(current, updated));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Replay[] noReplays() {
+        // The empty array holds no replays of any bus.
+        return (Replay[]) NO_REPLAYS;
+    }
+
+    private void remove(Replay replay) {
+        Replay[] current;
+        Replay[] updated;
+        do {
+            current = replays.get();
+            int index = Arrays.asList(current).indexOf(replay);
+            if (index < 0) {
+                return;
+            }
+            updated = current.length == 1 ? noReplays() : Arrays.copyOf(current, current.length - 1);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        } while (!replays.compareAndSet(current, updated));
+    }
+
+    /**
+     * Hands off events to a single subscription, through a bus of its own. Until the events held
+     * by the ring have been replayed, emitted events are set aside along with their sequence; once
+     * replayed, those not included in the replay are delivered, and the replay goes live. Events
+     * with a sequence up to that of the last replayed event are never delivered live.
+     */
+    private class Replay {
+
+        private final long from;
+        private final EventBus<T> bus;
+        private final ArrayDeque<Sequenced<T>> pending;
+        private volatile boolean live;
+        // Written before the replay goes live, and read only once it is.
+        private long replayed;
+
+        Replay(long from) {
+            this.from = from;
+            bus = EventBus.blocking();
+            bus.error(errorHandler::error);
+            pending = new ArrayDeque<>();
+        }
+
+        void emit(T event, long sequence) {
+            if (!live) {
+                synchronized (this) {
+                    if (!live) {
+                        pending.add(new Sequenced<>(event, sequence));
+                        return;
+                    }
+                }
+            }
+            if (sequence > replayed && sequence >= from) {
+                bus.emit(event);
+            }
+        }
+
+        /**
+         * Replays the events of the history, then the events set aside in the meantime.
+         * Must be called once this replay receives emitted events.
+         */
+        void start() {
+            // Any event given a later sequence is emitted to this replay as well.
+            long last = history.last();
+            replayed = last;
+            history.replay(from, last, bus::emit);
+            for (;;) {
+                List<Sequenced<T>> drained;
+                synchronized (this) {
+                    if (pending.isEmpty()) {
+                        live = true;
+                        return;
+                    }
+                    drained = new ArrayList<>(pending);
+                    pending.clear();
+                }
+                for (Sequenced<T> sequenced : drained) {
+                    if (sequenced.sequence > last && sequenced.sequence >= from) {
+                        bus.emit(sequenced.event);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A view of this bus which replays events starting at a given sequence.
+     */
+    private class Since implements EventSource<T> {
+
+        private final long from;
+
+        Since(long from) {
+            this.from = from;
+        }
+
+        @Override
+        public Executor executor() {
+            return executor;
+        }
+
+        @Override
+        public EventSubscription subscribe(EventSubscriber<T> subscriber, Executor executor) {
+            return ReplayEventBus.this.subscribe(from, bus -> bus.subscribe(subscriber, executor));
+        }
+
+        @Override
+        public EventSubscription subscribe(
+                EventSubscriber<T> subscriber,
+                Executor executor,
+                int capacity,
+                OverflowPolicy policy) {
+            return ReplayEventBus.this.subscribe(from, bus -> bus.subscribe(subscriber, executor, capacity, policy));
+        }
+
+        @Override
+        public EventSubscription subscribeOnDemand(
+                EventSubscriber<T> subscriber,
+                Executor executor,
+                int capacity,
+                OverflowPolicy policy) {
+            return ReplayEventBus.this.subscribe(
+                    from,
+                    bus -> bus.subscribeOnDemand(subscriber, executor, capacity, policy));
+        }
+
+        @Override
+        public <K> EventSubscription subscribeConflating(
+                EventSubscriber<T> subscriber,
+                Executor executor,
+                Function<T, K> keyExtractor) {
+            return ReplayEventBus.this.subscribe(
+                    from,
+                    bus -> bus.subscribeConflating(subscriber, executor, keyExtractor));
+        }
+
+        @Override
+        public <E extends Throwable> EventSource<T> error(Class<E> type, Consumer<E> consumer) {
+            ReplayEventBus.this.error(type, consumer);
+            return this;
+        }
+    }
+
+    private static class Sequenced<T> {
+        private final T event;
+        private final long sequence;
+
+        Sequenced(T event, long sequence) {
+            this.event = event;
+            this.sequence = sequence;
+        }
+    }
+}
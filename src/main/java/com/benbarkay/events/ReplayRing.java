@@ -0,0 +1,133 @@
+package com.benbarkay.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * A lock-free ring of the most recently added events. Each event is given a sequence number
+ * when it is added, and is written into its slot under a per-slot sequence, so that adding an
+ * event does not allocate and readers can tell whether the events they copied were overwritten
+ * in the meantime. When the ring has a maximum age, events older than it are not copied.
+ * @param <T>   The type of events in the ring.
+ */
+class ReplayRing<T> implements EventHistory<T> {
+
+    /**
+     * The sequence of a slot which has yet to be written to.
+     */
+    private static final long EMPTY = -2;
+
+    /**
+     * The sequence of a slot which is being written to.
+     */
+    private static final long WRITING = -1;
+
+    private final int capacity;
+    private final long maxAgeNanos;
+    private final AtomicLong cursor;
+    private final AtomicLongArray sequences;
+    private final AtomicReferenceArray<T> events;
+    private final AtomicLongArray times;
+
+    /**
+     * @param capacity      The number of events held by the ring.
+     * @param maxAgeNanos   The age beyond which events are no longer copied, or
+     *                      {@link Long#MAX_VALUE} to copy events regardless of their age.
+     */
+    ReplayRing(int capacity, long maxAgeNanos) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (maxAgeNanos <= 0) {
+            throw new IllegalArgumentException("maximum age must be positive: " + maxAgeNanos);
+        }
+        this.capacity = capacity;
+        this.maxAgeNanos = maxAgeNanos;
+        cursor = new AtomicLong();
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, EMPTY);
+        }
+        events = new AtomicReferenceArray<>(capacity);
+        times = maxAgeNanos == Long.MAX_VALUE ? null : new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Adds an event to the ring, overwriting the oldest event if the ring is full.
+     * @return  The sequence of the added event.
+     */
+    @Override
+    public long append(T event) {
+        long sequence = cursor.getAndIncrement();
+        int index = (int) (sequence % capacity);
+        long time = times == null ? 0 : System.nanoTime();
+        for (;;) {
+            long current = sequences.get(index);
+            if (current > sequence) {
+                // An emitter which was given a later sequence got to the slot first,
+                // so this event would have been overwritten anyway.
+                return sequence;
+            }
+            if (current == WRITING) {
+                Thread.yield();
+            } else if (sequences.compareAndSet(index, current, WRITING)) {
+                events.set(index, event);
+                if (times != null) {
+                    times.set(index, time);
+                }
+                sequences.set(index, sequence);
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * The sequence of the last event added to the ring, or {@code -1} if none were.
+     * Events with this sequence or earlier may still be in the process of being written.
+     */
+    @Override
+    public long last() {
+        return cursor.get() - 1;
+    }
+
+    /**
+     * Replays the events held by the ring. Events which were given a sequence but are still being
+     * written are waited for. The events are copied before they are replayed, and if an event was
+     * overwritten while copying, none of the events before it are replayed either.
+     */
+    @Override
+    public void replay(long from, long last, Consumer<T> consumer) {
+        copy(from, last).forEach(consumer);
+    }
+
+    private List<T> copy(long from, long last) {
+        long now = times == null ? 0 : System.nanoTime();
+        long first = Math.max(from, last - capacity + 1);
+        List<T> copied = new ArrayList<>((int) Math.max(0, last - first + 1));
+        // Slots are overwritten oldest first, so the newest events are copied first
+        // in order to stop at the first overwritten one.
+        for (long sequence = last; sequence >= first; sequence--) {
+            int index = (int) (sequence % capacity);
+            long current;
+            while ((current = sequences.get(index)) < sequence) {
+                Thread.yield();
+            }
+            if (current != sequence) {
+                break;
+            }
+            T event = events.get(index);
+            long time = times == null ? 0 : times.get(index);
+            if (sequences.get(index) != sequence || now - time > maxAgeNanos) {
+                break;
+            }
+            copied.add(event);
+        }
+        Collections.reverse(copied);
+        return copied;
+    }
+}
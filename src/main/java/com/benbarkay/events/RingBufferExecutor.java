@@ -0,0 +1,199 @@
+package com.benbarkay.events;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * An executor backed by a pre-allocated, bounded ring of slots which are written to by any
+ * number of producer threads and drained, in order, by a single dedicated consumer thread.
+ * Publishing a task does not allocate, and an {@link EventBus} created on this executor
+ * publishes its events directly into the ring rather than wrapping each one in a task.
+ *
+ * <p>When the ring is full, producers wait for a slot according to the {@link WaitStrategy}.
+ * Tasks submitted from the consumer thread itself are run inline, much like on a blocking
+ * bus: the consumer cannot wait on itself for a free slot, and running them inline keeps
+ * the deliveries of derived sources and subscriptions in the order they were dispatched.
+ */
+public class RingBufferExecutor implements Executor {
+
+    /**
+     * Determines how the consumer waits for tasks, and how producers wait for free slots.
+     */
+    public enum WaitStrategy {
+        /**
+         * Spins on the ring. Lowest latency, at the cost of fully occupying a core.
+         */
+        BUSY_SPIN,
+        /**
+         * Yields the thread between checks of the ring.
+         */
+        YIELD,
+        /**
+         * Parks the consumer when the ring is empty, to be unparked by producers.
+         */
+        PARK
+    }
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final long PARK_NANOS = 1_000_000L;
+    /**
+     * Set on the tail once the consumer has exited, so that no more slots can be claimed.
+     */
+    private static final long CLOSED = Long.MIN_VALUE;
+    private static final Consumer<Object> RUN_TASK = (task) -> ((Runnable) task).run();
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final Consumer<?>[] targets;
+    private final Object[] values;
+    private final AtomicLong tail;
+    private final WaitStrategy waitStrategy;
+    private final Thread consumer;
+    private volatile boolean consumerWaiting;
+    private volatile boolean running;
+
+    /**
+     * Creates a new executor and starts its consumer thread.
+     * @param capacity      The number of slots in the ring. Must be a power of two.
+     * @param waitStrategy  The strategy to use when waiting on the ring.
+     */
+    public RingBufferExecutor(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a positive power of two: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.targets = new Consumer<?>[capacity];
+        this.values = new Object[capacity];
+        this.tail = new AtomicLong();
+        this.waitStrategy = waitStrategy;
+        this.running = true;
+        this.consumer = new Thread(this::consume, "events-ring-buffer-" + THREAD_COUNT.incrementAndGet());
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        publish(RUN_TASK, command);
+    }
+
+    /**
+     * Stops accepting tasks. Tasks already in the ring, including those of producers which
+     * claimed a slot concurrently with this call, are run before the consumer thread exits.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(consumer);
+    }
+
+    /**
+     * Publishes a value to be handed to the specified target on the consumer thread.
+     */
+    <T> void publish(Consumer<T> target, T value) {
+        if (Thread.currentThread() == consumer) {
+            target.accept(value);
+            return;
+        }
+        if (!running) {
+            throw new RejectedExecutionException("executor has been shut down");
+        }
+        long position;
+        int index;
+        int attempts = 0;
+        while (true) {
+            position = tail.get();
+            if (position < 0) {
+                // The consumer has exited, and nothing would run a task in a claimed slot.
+                throw new RejectedExecutionException("executor has been shut down");
+            }
+            index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                idle(++attempts);
+            }
+        }
+        targets[index] = target;
+        values[index] = value;
+        if (waitStrategy == WaitStrategy.PARK) {
+            // A full volatile write, so that it cannot be reordered with the read of
+            // consumerWaiting below.
+            sequences.set(index, position + 1);
+            if (consumerWaiting) {
+                LockSupport.unpark(consumer);
+            }
+        } else {
+            sequences.lazySet(index, position + 1);
+        }
+    }
+
+    private void consume() {
+        long head = 0;
+        int attempts = 0;
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1) {
+                // Closing the tail fails if a producer claimed a slot since, which is then drained.
+                if (!running && tail.compareAndSet(head, head | CLOSED)) {
+                    return;
+                }
+                awaitTask(index, head + 1, ++attempts);
+                continue;
+            }
+            attempts = 0;
+            // Each target was published along with a value of its type.
+            @SuppressWarnings("unchecked")
+            Consumer<Object> target = (Consumer<Object>) targets[index];
+            Object value = values[index];
+            targets[index] = null;
+            values[index] = null;
+            sequences.lazySet(index, head + mask + 1);
+            head++;
+            try {
+                target.accept(value);
+            } catch (Throwable t) {
+                consumer.getUncaughtExceptionHandler().uncaughtException(consumer, t);
+            }
+        }
+    }
+
+    private void awaitTask(int index, long expected, int attempts) {
+        if (waitStrategy != WaitStrategy.PARK) {
+            idle(attempts);
+            return;
+        }
+        consumerWaiting = true;
+        if (sequences.get(index) != expected && running) {
+            LockSupport.parkNanos(this, PARK_NANOS);
+        }
+        consumerWaiting = false;
+    }
+
+    private void idle(int attempts) {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                break;
+            case YIELD:
+                Thread.yield();
+                break;
+            default:
+                if (attempts < 100) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(1);
+                }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.benbarkay.events;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks one at a time, in the order they were submitted, on an underlying executor
+ * which may itself run tasks concurrently. At most one task of this executor is ever
+ * submitted to the underlying executor, and it runs until this executor's queue is empty.
+ */
+class SerialExecutor implements Executor {
+
+    private final Executor executor;
+    private final Queue<Runnable> tasks;
+    private final AtomicInteger pending;
+    private final Runnable drain;
+
+    SerialExecutor(Executor executor) {
+        this.executor = executor;
+        tasks = new ConcurrentLinkedQueue<>();
+        pending = new AtomicInteger();
+        drain = this::drain;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        tasks.add(command);
+        if (pending.getAndIncrement() == 0) {
+            executor.execute(drain);
+        }
+    }
+
+    /**
+     * The number of tasks submitted to this executor which have yet to complete.
+     */
+    int pending() {
+        return pending.get();
+    }
+
+    private void drain() {
+        do {
+            Runnable task = tasks.poll();
+            try {
+                task.run();
+            } catch (Throwable t) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+            }
+        } while (pending.decrementAndGet() != 0);
+    }
+}
@@ -0,0 +1,280 @@
+package com.benbarkay.events;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A transport of frames through a memory-mapped file, shared by a single sending and a single
+ * receiving process. The file holds a header followed by a ring of records, each a frame preceded
+ * by its length and padded to a multiple of four bytes. A record which would not fit before the
+ * end of the ring is preceded by a padding marker, and written at its start instead.
+ *
+ * <p>The length of a record is written after its frame, and a receiver reads records until it
+ * finds a zero length. Having read a record, the receiver zeroes it, and publishes its position
+ * in the header; the sender never overwrites records past that position. Records therefore
+ * survive a restart of either process: a receiver resumes at its last published position, and
+ * a sender resumes after the last record written.
+ *
+ * <p>Accesses to the mapping are plain, and ordered by fences: a frame is stored before its length
+ * is, and loaded after its length is, and a record is done with before its room is released.
+ * Neither end blocks on a lock: both spin, then yield, then park briefly while waiting.
+ */
+class SharedMemoryRing implements FrameSender, FrameReceiver {
+
+    /**
+     * Opens the ring in a file for sending, creating the file if it does not exist.
+     */
+    static SharedMemoryRing sender(Path file, int capacity) throws IOException {
+        SharedMemoryRing ring = open(file, capacity);
+        long readPosition = ring.readPosition();
+        long position = readPosition;
+        int length;
+        while (position - readPosition < capacity && (length = ring.lengthAt(position)) != 0) {
+            position += length == PADDING ? capacity - ring.index(position) : recordSize(length);
+        }
+        ring.position = position;
+        return ring;
+    }
+
+    /**
+     * Opens the ring in a file for receiving, creating the file if it does not exist.
+     */
+    static SharedMemoryRing receiver(Path file, int capacity) throws IOException {
+        SharedMemoryRing ring = open(file, capacity);
+        ring.position = ring.readPosition();
+        return ring;
+    }
+
+    private static SharedMemoryRing open(Path file, int capacity) throws IOException {
+        if (capacity < MIN_CAPACITY || capacity % 4 != 0) {
+            throw new IllegalArgumentException(
+                    "capacity must be a multiple of 4 of at least " + MIN_CAPACITY + ": " + capacity);
+        }
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(
+                file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // The mapping remains valid once the channel is closed.
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA + capacity);
+        }
+        if (buffer.getInt(0) == 0) {
+            buffer.putInt(4, capacity);
+            buffer.putInt(0, MAGIC);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != capacity) {
+            throw new IOException(file + " is not a ring of " + capacity + " bytes");
+        }
+        return new SharedMemoryRing(buffer, capacity);
+    }
+
+    static final int MIN_CAPACITY = 64;
+
+    private static final int MAGIC = 0x45564252;
+
+    /**
+     * The offset of the receiver's position in the header, on a cache line of its own.
+     */
+    private static final int READ_POSITION = 64;
+
+    /**
+     * The offset of the ring in the file.
+     */
+    private static final int DATA = 128;
+
+    private static final int PADDING = -1;
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long PARK_NANOS = 50_000;
+    private static final byte[] ZEROS = new byte[4096];
+    private static final MethodHandle LOAD_FENCE = fence("loadFence");
+    private static final MethodHandle STORE_FENCE = fence("storeFence");
+    private static final MethodHandle FULL_FENCE = fence("fullFence");
+
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private ByteBuffer frame;
+    private long position;
+    private volatile boolean closed;
+
+    private SharedMemoryRing(MappedByteBuffer buffer, int capacity) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public int maxFrameSize() {
+        return capacity - 4;
+    }
+
+    @Override
+    public void send(ByteBuffer frame) throws IOException {
+        int length = frame.remaining();
+        int size = recordSize(length);
+        if (size > capacity) {
+            throw new IllegalArgumentException(
+                    "frame of " + length + " bytes does not fit in a ring of " + capacity + " bytes");
+        }
+        int index = index(position);
+        if (capacity - index < size) {
+            // Padding and record cannot be waited for at once, as together they may exceed the ring.
+            int padding = capacity - index;
+            awaitRoom(padding);
+            buffer.putInt(DATA + index, PADDING);
+            position += padding;
+            index = 0;
+        }
+        awaitRoom(size);
+        ByteBuffer record = buffer.duplicate();
+        record.position(DATA + index + 4);
+        record.put(frame);
+        storeFence();
+        // The length is written last, so that a record is only ever read once it is complete.
+        buffer.putInt(DATA + index, length);
+        position += size;
+    }
+
+    @Override
+    public ByteBuffer receive() {
+        for (int idle = 0; !closed; idle++) {
+            int index = index(position);
+            int length = buffer.getInt(DATA + index);
+            if (length == PADDING) {
+                release(index, capacity - index);
+                continue;
+            }
+            if (length > 0) {
+                loadFence();
+                if (frame == null || frame.capacity() < length) {
+                    frame = ByteBuffer.allocate(Math.max(length, frame == null ? 4096 : frame.capacity() * 2));
+                }
+                ByteBuffer record = buffer.duplicate();
+                record.position(DATA + index + 4).limit(DATA + index + 4 + length);
+                frame.clear();
+                frame.put(record).flip();
+                release(index, recordSize(length));
+                return frame;
+            }
+            idle(idle);
+        }
+        return null;
+    }
+
+    /**
+     * Wakes up a blocked sender or receiver. The mapping is released once it is garbage collected.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /**
+     * Waits until the receiver has released the specified number of bytes past the position.
+     */
+    private void awaitRoom(int size) throws IOException {
+        for (int idle = 0; capacity - (position - readPosition()) < size; idle++) {
+            if (closed) {
+                throw new IOException("ring is closed");
+            }
+            idle(idle);
+        }
+        // The room must not be written to before it was released.
+        loadFence();
+    }
+
+    /**
+     * Zeroes a read record, so that it is not read again once the ring wraps around,
+     * and publishes the position following it to the sender.
+     */
+    private void release(int index, int size) {
+        ByteBuffer record = buffer.duplicate();
+        record.position(DATA + index);
+        for (int remaining = size; remaining > 0; remaining -= ZEROS.length) {
+            record.put(ZEROS, 0, Math.min(remaining, ZEROS.length));
+        }
+        position += size;
+        // Both the reads of the record and the zeroing of it precede its release.
+        fullFence();
+        buffer.putLong(READ_POSITION, position);
+    }
+
+    private long readPosition() {
+        return buffer.getLong(READ_POSITION);
+    }
+
+    private int lengthAt(long position) {
+        return buffer.getInt(DATA + index(position));
+    }
+
+    private int index(long position) {
+        return (int) (position % capacity);
+    }
+
+    private static int recordSize(int length) {
+        return 4 + ((length + 3) & ~3);
+    }
+
+    /**
+     * Keeps loads before the fence from being reordered with loads and stores after it.
+     */
+    private static void loadFence() {
+        invoke(LOAD_FENCE);
+    }
+
+    /**
+     * Keeps stores before the fence from being reordered with loads and stores after it.
+     */
+    private static void storeFence() {
+        invoke(STORE_FENCE);
+    }
+
+    private static void fullFence() {
+        invoke(FULL_FENCE);
+    }
+
+    private static void invoke(MethodHandle fence) {
+        try {
+            fence.invokeExact();
+        } catch (Throwable t) {
+            throw new AssertionError(t);
+        }
+    }
+
+    /**
+     * Java 8 has no public API for fences, but {@code sun.misc.Unsafe} has them. It is looked
+     * up reflectively, as compiling against it cannot be done without warnings; the handles are
+     * constants, and compiled down to the fences themselves.
+     */
+    private static MethodHandle fence(String name) {
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(type, name, MethodType.methodType(void.class))
+                    .bindTo(field.get(null));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static void idle(int idle) {
+        if (idle < SPINS) {
+            return;
+        }
+        if (idle < SPINS + YIELDS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.benbarkay.events;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * The scheduler shared by the timed operators of all sources: a single daemon thread,
+ * started once first needed. Tasks are removed from its queue as soon as they are cancelled,
+ * so that operators which are disconnected do not leave their tasks behind.
+ */
+final class SharedScheduler {
+
+    private SharedScheduler() {
+    }
+
+    static ScheduledExecutorService get() {
+        return Holder.SCHEDULER;
+    }
+
+    private static class Holder {
+        static final ScheduledExecutorService SCHEDULER = create();
+
+        private static ScheduledExecutorService create() {
+            ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread thread = new Thread(r, "event-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+}
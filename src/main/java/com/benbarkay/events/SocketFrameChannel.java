@@ -0,0 +1,95 @@
+package com.benbarkay.events;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * A transport of frames over a socket, each preceded by its length.
+ */
+class SocketFrameChannel implements FrameSender, FrameReceiver {
+
+    /**
+     * The size of the largest frame, which guards receivers against corrupt lengths.
+     */
+    static final int MAX_FRAME_SIZE = 16 << 20;
+
+    static SocketFrameChannel connect(SocketAddress address) throws IOException {
+        return new SocketFrameChannel(SocketChannel.open(address));
+    }
+
+    private final SocketChannel channel;
+    private final ByteBuffer sendHeader;
+    private final ByteBuffer receiveHeader;
+    private final ByteBuffer[] sent;
+    private ByteBuffer frame;
+
+    SocketFrameChannel(SocketChannel channel) throws IOException {
+        this.channel = channel;
+        // Frames are already batched, so there is nothing to gain from delaying them further.
+        channel.socket().setTcpNoDelay(true);
+        sendHeader = ByteBuffer.allocate(4);
+        receiveHeader = ByteBuffer.allocate(4);
+        sent = new ByteBuffer[2];
+        frame = ByteBuffer.allocate(64 << 10);
+    }
+
+    @Override
+    public int maxFrameSize() {
+        return MAX_FRAME_SIZE;
+    }
+
+    @Override
+    public void send(ByteBuffer frame) throws IOException {
+        sendHeader.clear();
+        sendHeader.putInt(frame.remaining()).flip();
+        sent[0] = sendHeader;
+        sent[1] = frame;
+        while (frame.hasRemaining()) {
+            channel.write(sent);
+        }
+    }
+
+    @Override
+    public ByteBuffer receive() throws IOException {
+        receiveHeader.clear();
+        if (!readFully(receiveHeader)) {
+            return null;
+        }
+        int length = receiveHeader.getInt(0);
+        if (length < 0 || length > MAX_FRAME_SIZE) {
+            throw new IOException("invalid frame length: " + length);
+        }
+        if (frame.capacity() < length) {
+            frame = ByteBuffer.allocate(Math.max(length, frame.capacity() * 2));
+        }
+        frame.clear().limit(length);
+        if (!readFully(frame)) {
+            throw new EOFException("connection closed before the end of a frame");
+        }
+        frame.flip();
+        return frame;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @return  {@code false} if the connection was closed before anything was read.
+     */
+    private boolean readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                if (buffer.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("connection closed before the end of a frame");
+            }
+        }
+        return true;
+    }
+}
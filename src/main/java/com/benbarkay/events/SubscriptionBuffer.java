@@ -0,0 +1,266 @@
+package com.benbarkay.events;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded buffer of events pending delivery to a subscription. Events are drained
+ * by a single task at a time on the subscription's executor, and only as far as the
+ * subscription's outstanding demand allows.
+ *
+ * <p>Buffers of the {@link OverflowPolicy#BLOCK} policy never block while events are dispatched
+ * to them, which may be on the executor that would drain them. Instead, room is reserved for
+ * each event on the emitting thread, which waits for it, before the event is dispatched.
+ * @param <T>   The type of buffered events.
+ */
+class SubscriptionBuffer<T> implements EventBuffer<T> {
+
+    /**
+     * The number of events delivered by a single drain task before it yields the executor.
+     */
+    private static final int DRAIN_LIMIT = 256;
+
+    private final EventBusSubscription<T> subscription;
+    private final Executor queue;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final ArrayDeque<Object> events;
+    private final boolean instrumented;
+    private final ReentrantLock lock;
+    private final Condition notFull;
+    private final Runnable drain;
+    private long demand;
+    private int reserved;
+    private boolean draining;
+
+    /**
+     * @param subscription  The subscription to deliver to.
+     * @param queue         The executor to deliver on.
+     * @param capacity      The maximum number of buffered events.
+     * @param policy        What to do with events emitted while the buffer is full.
+     * @param demand        The initial demand, or {@link Long#MAX_VALUE} for unbounded demand.
+     */
+    SubscriptionBuffer(
+            EventBusSubscription<T> subscription,
+            Executor queue,
+            int capacity,
+            OverflowPolicy policy,
+            long demand) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.subscription = subscription;
+        this.queue = queue;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.demand = demand;
+        events = new ArrayDeque<>(Math.min(capacity, 16));
+        instrumented = subscription.isInstrumented();
+        lock = new ReentrantLock();
+        notFull = lock.newCondition();
+        drain = this::drain;
+    }
+
+    @Override
+    public void offer(T event, EventTracer.Span span) {
+        boolean overflow = false;
+        boolean buffered = true;
+        int dropped = 0;
+        lock.lock();
+        try {
+            if (policy == OverflowPolicy.BLOCK) {
+                // Events dispatched to a subscription made after they were emitted have no room
+                // reserved for them, and are buffered regardless.
+                if (reserved > 0) {
+                    reserved--;
+                }
+            } else if (events.size() >= capacity) {
+                switch (policy) {
+                    case DROP_NEWEST:
+                        buffered = false;
+                        dropped = 1;
+                        break;
+                    case DROP_OLDEST:
+                        release(events.poll());
+                        dropped = 1;
+                        break;
+                    case CONFLATE:
+                        dropped = events.size();
+                        releaseAll();
+                        break;
+                    case FAIL:
+                        overflow = true;
+                        buffered = false;
+                        dropped = 1;
+                        break;
+                }
+            }
+            if (buffered) {
+                // Instrumented buffers keep the time and span at which each event was buffered.
+                events.add(instrumented ? new Buffered<>(event, System.nanoTime(), span) : event);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (dropped > 0) {
+            subscription.metrics().dropped(dropped);
+        }
+        if (!buffered) {
+            subscription.release(event);
+        }
+        if (overflow) {
+            subscription.fail(new EventOverflowException(capacity));
+        } else if (buffered) {
+            scheduleDrain();
+        }
+    }
+
+    @Override
+    public boolean reserves() {
+        return policy == OverflowPolicy.BLOCK;
+    }
+
+    @Override
+    public void reserve(int count) {
+        lock.lock();
+        try {
+            // A batch larger than the buffer is admitted once the buffer is empty.
+            int room = Math.min(count, capacity);
+            while (events.size() + reserved + room > capacity && !subscription.isCancelled()) {
+                notFull.awaitUninterruptibly();
+            }
+            reserved += count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("requested demand must be positive: " + n);
+        }
+        lock.lock();
+        try {
+            demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        } finally {
+            lock.unlock();
+        }
+        scheduleDrain();
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return events.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int clear() {
+        lock.lock();
+        try {
+            int discarded = events.size();
+            releaseAll();
+            notFull.signalAll();
+            return discarded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all buffered events, releasing them if they are pooled.
+     */
+    private void releaseAll() {
+        Object event;
+        while ((event = events.poll()) != null) {
+            release(event);
+        }
+    }
+
+    private void release(Object event) {
+        subscription.release(instrumented ? buffered(event).event : plain(event));
+    }
+
+    private void scheduleDrain() {
+        lock.lock();
+        try {
+            if (draining || events.isEmpty() || demand == 0) {
+                return;
+            }
+            draining = true;
+        } finally {
+            lock.unlock();
+        }
+        queue.execute(drain);
+    }
+
+    private void drain() {
+        for (int delivered = 0; ; delivered++) {
+            Object event;
+            lock.lock();
+            try {
+                if (delivered == DRAIN_LIMIT && queue != EventBus.DIRECT_EXECUTOR) {
+                    // Yield the executor to other tasks, and continue in a new task.
+                    draining = false;
+                    break;
+                }
+                if (subscription.isCancelled() || events.isEmpty() || demand == 0) {
+                    draining = false;
+                    return;
+                }
+                event = events.poll();
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+                // Emitting threads may be waiting for room for batches of different sizes.
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            if (instrumented) {
+                Buffered<T> buffered = buffered(event);
+                subscription.deliver(buffered.event, buffered.time, buffered.span);
+            } else {
+                subscription.deliver(plain(event), 0, null);
+            }
+        }
+        scheduleDrain();
+    }
+
+    /**
+     * Buffers of instrumented subscriptions hold {@link Buffered} events, and other buffers
+     * hold the events themselves.
+     */
+    @SuppressWarnings("unchecked")
+    private Buffered<T> buffered(Object event) {
+        return (Buffered<T>) event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T plain(Object event) {
+        return (T) event;
+    }
+
+    /**
+     * An event buffered by an instrumented subscription, along with the time and span
+     * of its emission.
+     */
+    static class Buffered<T> {
+        final T event;
+        final long time;
+        final EventTracer.Span span;
+
+        Buffered(T event, long time, EventTracer.Span span) {
+            this.event = event;
+            this.time = time;
+            this.span = span;
+        }
+    }
+}
@@ -1,19 +1,32 @@
 package com.benbarkay.events;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Reflective operations on Java types.
  */
 class TypeReflection {
-    private final Class type;
+
+    private static final Class<?>[] NO_TYPES = new Class<?>[0];
+
+    /**
+     * The assignable types of each class, computed once per class. Since the supertypes
+     * of a class never change, the linearization never has to be invalidated.
+     */
+    private static final ClassValue<Class<?>[]> ASSIGNABLE_TYPES = new ClassValue<Class<?>[]>() {
+        @Override
+        protected Class<?>[] computeValue(Class<?> type) {
+            return linearize(type);
+        }
+    };
+
+    private final Class<?> type;
 
     /**
      * Creates a new instance for the specified type.
      * @param type  The type to create a new {@code TypeReflection} for.
      */
-    TypeReflection(Class type) {
+    TypeReflection(Class<?> type) {
         this.type = type;
     }
 
@@ -21,25 +34,34 @@ class TypeReflection {
      * Returns a list of assignable types for the type of this {@code TypeReflection}.
      * The returned list is ordered by the most specific to the least specific.
      */
-    List<Class> getAssignableTypes() {
-        List<Class> parentClasses = Optional.ofNullable(type.getSuperclass())
-                .map(TypeReflection::new)
-                .map(TypeReflection::getAssignableTypes)
-                .orElse(Collections.emptyList());
-
-        List<Class> interfaceClasses = Arrays.stream(type.getInterfaces())
-                .map(TypeReflection::new)
-                .map(TypeReflection::getAssignableTypes)
-                .flatMap(List::stream)
-                .distinct()
-                .filter(c -> !parentClasses.contains(c))
-                .collect(Collectors.toList());
-
-        List<Class> classes = new ArrayList<>();
-        classes.add(type);
-        classes.addAll(interfaceClasses);
-        classes.addAll(parentClasses);
-        return classes;
+    List<Class<?>> getAssignableTypes() {
+        return Collections.unmodifiableList(Arrays.asList(assignableTypes(type)));
     }
 
+    /**
+     * Returns the assignable types of the specified type, ordered as in {@link #getAssignableTypes()}.
+     * The returned array is cached and shared, and must not be modified.
+     */
+    static Class<?>[] assignableTypes(Class<?> type) {
+        return ASSIGNABLE_TYPES.get(type);
+    }
+
+    private static Class<?>[] linearize(Class<?> type) {
+        Class<?>[] parentClasses = type.getSuperclass() == null
+                ? NO_TYPES
+                : assignableTypes(type.getSuperclass());
+        Set<Class<?>> parentSet = new HashSet<>(Arrays.asList(parentClasses));
+
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        classes.add(type);
+        for (Class<?> interfaceClass : type.getInterfaces()) {
+            for (Class<?> assignable : assignableTypes(interfaceClass)) {
+                if (!parentSet.contains(assignable)) {
+                    classes.add(assignable);
+                }
+            }
+        }
+        classes.addAll(Arrays.asList(parentClasses));
+        return classes.toArray(NO_TYPES);
+    }
 }
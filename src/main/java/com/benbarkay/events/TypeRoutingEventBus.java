@@ -0,0 +1,168 @@
+package com.benbarkay.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A bus which routes events by their class. Filtering this bus by type with
+ * {@link #filter(Class)} does not subscribe a filter to the bus; instead, each requested
+ * type is given a single source, and every emitted event is dispatched only to the sources
+ * of the types it is assignable to. The sources matching each concrete event class are
+ * resolved once and cached, so emitting costs as much as the number of matching types,
+ * regardless of how many types are being filtered by.
+ *
+ * @param <T>   The type of events emitted by this bus.
+ */
+public class TypeRoutingEventBus<T> implements EventSource<T>, EventEmitter<T> {
+
+    public static <T> TypeRoutingEventBus<T> create(Executor executor) {
+        return new TypeRoutingEventBus<>(EventBus.create(executor));
+    }
+
+    public static <T> TypeRoutingEventBus<T> blocking() {
+        return new TypeRoutingEventBus<>(EventBus.blocking());
+    }
+
+    private static final EventBus<?>[] NO_ROUTES = new EventBus<?>[0];
+
+    private final EventBus<T> bus;
+    private final AtomicReference<Routes> routes;
+
+    private TypeRoutingEventBus(EventBus<T> bus) {
+        this.bus = bus;
+        routes = new AtomicReference<>(new Routes(Collections.emptyMap()));
+    }
+
+    @Override
+    public Executor executor() {
+        return bus.executor();
+    }
+
+    @Override
+    public EventSubscription subscribe(EventSubscriber<T> subscriber, Executor executor) {
+        return bus.subscribe(subscriber, executor);
+    }
+
+    @Override
+    public EventSubscription subscribe(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        return bus.subscribe(subscriber, executor, capacity, policy);
+    }
+
+    @Override
+    public EventSubscription subscribeOnDemand(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            int capacity,
+            OverflowPolicy policy) {
+        return bus.subscribeOnDemand(subscriber, executor, capacity, policy);
+    }
+
+    @Override
+    public <K> EventSubscription subscribeConflating(
+            EventSubscriber<T> subscriber,
+            Executor executor,
+            Function<T, K> keyExtractor) {
+        return bus.subscribeConflating(subscriber, executor, keyExtractor);
+    }
+
+    @Override
+    public <E extends Throwable> EventSource<T> error(Class<E> type, Consumer<E> consumer) {
+        bus.error(type, consumer);
+        return this;
+    }
+
+    /**
+     * Returns the source of events of the specified type. All calls with the same type
+     * return the same source, which receives each event assignable to that type.
+     */
+    @Override
+    public <F extends T> EventSource<F> filter(Class<F> type) {
+        Routes current;
+        EventBus<?> source;
+        while ((source = (current = routes.get()).sources.get(type)) == null) {
+            Map<Class<?>, EventBus<?>> sources = new HashMap<>(current.sources);
+            sources.put(type, EventBus.create(bus.executor()));
+            routes.compareAndSet(current, new Routes(sources));
+        }
+        // The source of each type is only ever emitted events assignable to that type.
+        @SuppressWarnings("unchecked")
+        EventSource<F> typed = (EventSource<F>) source;
+        return typed;
+    }
+
+    @Override
+    public void emit(T event) {
+        if (bus.hasSubscribers()) {
+            bus.emit(event);
+        }
+        if (event != null) {
+            for (EventBus<?> route : routes.get().resolve(event.getClass())) {
+                // Routes are resolved from the types the event is assignable to.
+                @SuppressWarnings("unchecked")
+                EventBus<Object> target = (EventBus<Object>) route;
+                target.emit(event);
+            }
+        }
+    }
+
+    @Override
+    public void error(Throwable t) {
+        bus.error(t);
+    }
+
+    @Override
+    public boolean hasSubscribers() {
+        if (bus.hasSubscribers()) {
+            return true;
+        }
+        for (EventBus<?> source : routes.get().sources.values()) {
+            if (source.hasSubscribers()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An immutable set of per-type sources, along with the sources resolved from them for
+     * each concrete event class. A new instance is created whenever a type is added, which
+     * discards the previously resolved routes.
+     */
+    private static class Routes {
+        private final Map<Class<?>, EventBus<?>> sources;
+        private final Map<Class<?>, EventBus<?>[]> resolved;
+
+        Routes(Map<Class<?>, EventBus<?>> sources) {
+            this.sources = sources;
+            this.resolved = new ConcurrentHashMap<>();
+        }
+
+        EventBus<?>[] resolve(Class<?> type) {
+            EventBus<?>[] routes = resolved.get(type);
+            if (routes == null) {
+                List<EventBus<?>> matching = new ArrayList<>();
+                for (Class<?> assignable : TypeReflection.assignableTypes(type)) {
+                    EventBus<?> source = sources.get(assignable);
+                    if (source != null) {
+                        matching.add(source);
+                    }
+                }
+                routes = matching.isEmpty() ? NO_ROUTES : matching.toArray(NO_ROUTES);
+                resolved.put(type, routes);
+            }
+            return routes;
+        }
+    }
+}
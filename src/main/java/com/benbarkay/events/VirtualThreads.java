@@ -0,0 +1,53 @@
+package com.benbarkay.events;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads, which are available from Java 21 onwards. Since this library
+ * targets Java 8, the virtual thread executor is looked up reflectively, once.
+ */
+class VirtualThreads {
+
+    /**
+     * Starts a new virtual thread per task, or {@code null} if virtual threads are unavailable.
+     */
+    private static final Executor THREAD_PER_TASK = lookupThreadPerTaskExecutor();
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether or not virtual threads are available on this runtime.
+     */
+    static boolean isAvailable() {
+        return THREAD_PER_TASK != null;
+    }
+
+    /**
+     * Creates an executor which runs its tasks one at a time, in order, on a virtual thread.
+     * A virtual thread is started whenever the executor has tasks to run, and ends once it
+     * has run them all, so idle executors hold no thread at all.
+     * @throws UnsupportedOperationException    If virtual threads are unavailable.
+     */
+    static Executor newSerialExecutor() {
+        if (THREAD_PER_TASK == null) {
+            throw new UnsupportedOperationException("virtual threads require Java 21 or later");
+        }
+        return new SerialExecutor(THREAD_PER_TASK);
+    }
+
+    private static Executor lookupThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) factory.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            // Virtual threads exist, but are a disabled preview feature of this runtime.
+            return null;
+        }
+    }
+}
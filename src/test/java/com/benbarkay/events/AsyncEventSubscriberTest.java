@@ -0,0 +1,141 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class AsyncEventSubscriberTest {
+
+    @Test
+    public void eventsInFlightAreLimited() {
+        EventBus<Integer> bus = EventBus.blocking();
+        List<Integer> started = new ArrayList<>();
+        List<CompletableFuture<Void>> stages = new ArrayList<>();
+        bus.subscribeAsync((event, s) -> {
+            started.add(event);
+            CompletableFuture<Void> stage = new CompletableFuture<>();
+            stages.add(stage);
+            return stage;
+        }, EventBus.DIRECT_EXECUTOR, 2, CompletionOrder.UNORDERED, 10, OverflowPolicy.FAIL);
+
+        for (int i = 0; i < 5; i++) {
+            bus.emit(i);
+        }
+        assertEquals(Arrays.asList(0, 1), started);
+
+        stages.get(1).complete(null);
+        assertEquals(Arrays.asList(0, 1, 2), started);
+        stages.get(0).complete(null);
+        assertEquals(Arrays.asList(0, 1, 2, 3), started);
+    }
+
+    @Test
+    public void orderedCompletionWaitsForOldestEvent() {
+        EventBus<Integer> bus = EventBus.blocking();
+        List<Integer> started = new ArrayList<>();
+        List<CompletableFuture<Void>> stages = new ArrayList<>();
+        bus.subscribeAsync((event, s) -> {
+            started.add(event);
+            CompletableFuture<Void> stage = new CompletableFuture<>();
+            stages.add(stage);
+            return stage;
+        }, EventBus.DIRECT_EXECUTOR, 2, CompletionOrder.ORDERED, 10, OverflowPolicy.FAIL);
+
+        for (int i = 0; i < 5; i++) {
+            bus.emit(i);
+        }
+        stages.get(1).complete(null);
+        assertEquals(Arrays.asList(0, 1), started);
+
+        stages.get(0).complete(null);
+        assertEquals(Arrays.asList(0, 1, 2, 3), started);
+    }
+
+    @Test
+    public void failuresAreReportedToSubscriptionAndReleaseTheirSlot() {
+        EventBus<Integer> bus = EventBus.blocking();
+        List<Throwable> errors = new ArrayList<>();
+        List<Integer> started = new ArrayList<>();
+        IllegalStateException thrown = new IllegalStateException();
+        IllegalArgumentException failed = new IllegalArgumentException();
+        bus.subscribeAsync((event, s) -> {
+            started.add(event);
+            if (event == 0) {
+                throw thrown;
+            }
+            CompletableFuture<Void> stage = new CompletableFuture<>();
+            stage.completeExceptionally(failed);
+            return stage;
+        }, 1, CompletionOrder.ORDERED).error(errors::add);
+
+        bus.emit(0);
+        bus.emit(1);
+        bus.emit(2);
+
+        assertEquals(Arrays.asList(0, 1, 2), started);
+        assertEquals(Arrays.asList(thrown, failed, failed), errors);
+    }
+
+    @Test
+    public void defaultSubscriptionDoesNotBlockEmitters() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            EventBus<Integer> bus = EventBus.create(executor);
+            List<Integer> started = Collections.synchronizedList(new ArrayList<>());
+            List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+            EventSubscription subscription = bus.subscribeAsync((event, s) -> {
+                started.add(event);
+                return new CompletableFuture<>();
+            }, 2, CompletionOrder.UNORDERED).error(errors::add);
+
+            for (int i = 0; i < 10; i++) {
+                bus.emit(i);
+            }
+            // Once these have run, so have the drains scheduled by the dispatches before them.
+            executor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+            executor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+
+            assertEquals(Arrays.asList(0, 1), started);
+            assertEquals(8, errors.size() + subscription.buffered());
+            for (Throwable error : errors) {
+                assertTrue(error instanceof EventOverflowException);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void singleThreadDrivesManyConcurrentCalls() throws Exception {
+        ExecutorService io = Executors.newScheduledThreadPool(4);
+        try {
+            EventBus<Integer> bus = EventBus.blocking();
+            List<Integer> completed = Collections.synchronizedList(new ArrayList<>());
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            bus.subscribeAsync((event, s) -> CompletableFuture.runAsync(() -> {
+                completed.add(event);
+                if (completed.size() == 1000) {
+                    done.complete(null);
+                }
+            }, io), bus.executor(), 100, CompletionOrder.UNORDERED, 100, OverflowPolicy.BLOCK);
+
+            for (int i = 0; i < 1000; i++) {
+                bus.emit(i);
+            }
+
+            done.get(5, TimeUnit.SECONDS);
+            assertEquals(1000, completed.size());
+        } finally {
+            io.shutdown();
+        }
+    }
+}
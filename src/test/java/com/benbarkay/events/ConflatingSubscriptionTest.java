@@ -0,0 +1,165 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.*;
+
+public class ConflatingSubscriptionTest {
+
+    @Test
+    public void latestEventOfEachKeyIsDelivered() {
+        EventBus<String> bus = EventBus.blocking();
+        List<Runnable> tasks = new ArrayList<>();
+        List<String> received = new ArrayList<>();
+        EventSubscription subscription = bus.subscribeConflating(
+                (event, s) -> received.add(event), tasks::add, event -> event.charAt(0));
+
+        Arrays.asList("a1", "b1", "a2", "a3", "c1", "b2").forEach(bus::emit);
+        assertEquals(3, subscription.buffered());
+
+        tasks.forEach(Runnable::run);
+        // Keys are delivered in the order they were first buffered.
+        assertEquals(Arrays.asList("a3", "b2", "c1"), received);
+        assertEquals(0, subscription.buffered());
+    }
+
+    @Test
+    public void bufferIsBoundedByNumberOfKeys() {
+        EventBusStatistics statistics = new EventBusStatistics();
+        EventBus<Integer> bus = EventBus.blocking(statistics);
+        List<Runnable> tasks = new ArrayList<>();
+        List<Integer> received = new ArrayList<>();
+        EventSubscription subscription = bus.subscribeConflating(
+                (event, s) -> received.add(event), tasks::add, event -> event % 4);
+
+        for (int i = 0; i < 1000; i++) {
+            bus.emit(i);
+        }
+        assertEquals(4, subscription.buffered());
+        assertEquals(996, statistics.dropped());
+
+        tasks.forEach(Runnable::run);
+        assertEquals(Arrays.asList(996, 997, 998, 999), received);
+        assertEquals(4, statistics.delivered());
+    }
+
+    @Test
+    public void eventsOfEachKeyAreDeliveredInOrder() throws Exception {
+        EventBus<Integer> bus = EventBus.blocking();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Map<Integer, List<Integer>> received = new HashMap<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(8);
+        try {
+            bus.subscribeConflating((event, s) -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                received.computeIfAbsent(event % 8, key -> new ArrayList<>()).add(event);
+                if (event >= 99_992) {
+                    done.countDown();
+                }
+            }, executor, event -> event % 8);
+
+            bus.emit(0);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i < 100_000; i++) {
+                bus.emit(i);
+            }
+            release.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(8, received.size());
+        for (Map.Entry<Integer, List<Integer>> entry : received.entrySet()) {
+            List<Integer> events = entry.getValue();
+            for (int i = 1; i < events.size(); i++) {
+                assertTrue(events.get(i - 1) < events.get(i));
+            }
+            assertEquals(99_992 + entry.getKey(), (int) events.get(events.size() - 1));
+        }
+        // The first event was accepted while the rest were emitted, which left one per key.
+        assertEquals(Arrays.asList(0, 99_992), received.get(0));
+    }
+
+    @Test
+    public void cancellingDiscardsPendingEvents() {
+        EventBusStatistics statistics = new EventBusStatistics();
+        EventBus<Integer> bus = EventBus.blocking(statistics);
+        List<Runnable> tasks = new ArrayList<>();
+        EventSubscription subscription = bus.subscribeConflating(
+                (event, s) -> fail(), tasks::add, event -> event % 2);
+
+        bus.emitAll(Arrays.asList(1, 2, 3, 4, 5));
+        subscription.cancel();
+        assertEquals(0, subscription.buffered());
+        tasks.forEach(Runnable::run);
+
+        assertEquals(5, statistics.dropped());
+        assertEquals(0, statistics.delivered());
+    }
+
+    @Test
+    public void derivedSourcesSupportConflating() {
+        EventBus<Integer> bus = EventBus.blocking();
+        List<Runnable> tasks = new ArrayList<>();
+        List<Integer> received = new ArrayList<>();
+        bus.map(i -> i * 10).subscribeConflating((event, s) -> received.add(event), tasks::add, event -> 0);
+
+        bus.emitAll(Arrays.asList(1, 2, 3));
+        tasks.forEach(Runnable::run);
+
+        assertEquals(Arrays.asList(30), received);
+    }
+
+    @Test
+    public void sourcesWithOnlyPlainSubscriptionsAreRelayed() {
+        EventBus<Integer> bus = EventBus.blocking();
+        EventSource<Integer> source = new EventSource<Integer>() {
+            @Override
+            public Executor executor() {
+                return bus.executor();
+            }
+
+            @Override
+            public EventSubscription subscribe(EventSubscriber<Integer> subscriber, Executor executor) {
+                return bus.subscribe(subscriber, executor);
+            }
+
+            @Override
+            public <E extends Throwable> EventSource<Integer> error(Class<E> type, Consumer<E> consumer) {
+                return bus.error(type, consumer);
+            }
+        };
+        List<Runnable> tasks = new ArrayList<>();
+        List<Integer> received = new ArrayList<>();
+        EventSubscription subscription = source.subscribeConflating(
+                (event, s) -> received.add(event), tasks::add, event -> event % 2);
+
+        bus.emitAll(Arrays.asList(1, 2, 3, 4, 5));
+        assertEquals(2, subscription.buffered());
+        tasks.forEach(Runnable::run);
+        assertEquals(Arrays.asList(5, 4), received);
+
+        subscription.cancel();
+        assertFalse(bus.hasSubscribers());
+    }
+}
@@ -0,0 +1,130 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ErrorHandlerTest {
+    /**
+     * Exception types which have public no-argument constructors, none of which is
+     * assignable from another or from {@link IllegalStateException}.
+     */
+    private static final List<Class<? extends Throwable>> UNRELATED_TYPES = Arrays.asList(
+            IOException.class,
+            InterruptedException.class,
+            ClassNotFoundException.class,
+            CloneNotSupportedException.class,
+            TimeoutException.class,
+            ArithmeticException.class,
+            ArrayStoreException.class,
+            NegativeArraySizeException.class,
+            UnsupportedOperationException.class,
+            NoSuchElementException.class,
+            IllegalArgumentException.class,
+            NullPointerException.class,
+            ClassCastException.class,
+            SecurityException.class);
+
+    @Test
+    public void mostSpecificConsumerHandlesError() {
+        List<String> handled = new ArrayList<>();
+        ErrorHandler handler = new ErrorHandler(t -> handled.add("default"));
+        handler.error(RuntimeException.class, t -> handled.add("runtime"));
+        handler.error(IllegalArgumentException.class, t -> handled.add("illegal argument"));
+
+        handler.error(new NumberFormatException());
+        handler.error(new IllegalStateException());
+        handler.error(new Exception());
+
+        assertEquals(Arrays.asList("illegal argument", "runtime", "default"), handled);
+    }
+
+    @Test
+    public void registeringConsumerInvalidatesResolvedConsumers() {
+        List<String> handled = new ArrayList<>();
+        ErrorHandler handler = new ErrorHandler(t -> handled.add("default"));
+
+        handler.error(new IllegalStateException());
+        handler.error(IllegalStateException.class, t -> handled.add("illegal state"));
+        handler.error(new IllegalStateException());
+
+        assertEquals(Arrays.asList("default", "illegal state"), handled);
+    }
+
+    @Test
+    public void errorsInFlightAreHandledWhileConsumersAreRegistered() throws InterruptedException {
+        int events = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicInteger handled = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(events);
+        EventBus<Integer> bus = EventBus.create(pool);
+        EventSubscription subscription = bus.consume(i -> {
+            throw new IllegalStateException();
+        }).error(IllegalStateException.class, t -> {
+            handled.incrementAndGet();
+            done.countDown();
+        });
+
+        Thread registering = new Thread(() -> {
+            for (int i = 0; i < 1000; i++) {
+                subscription.error(UNRELATED_TYPES.get(i % UNRELATED_TYPES.size()), t -> {
+                    throw new AssertionError("unexpected error type");
+                });
+            }
+        });
+        registering.start();
+        for (int i = 0; i < events; i++) {
+            bus.emit(i);
+        }
+        registering.join();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(events, handled.get());
+        pool.shutdown();
+    }
+
+    @Test
+    public void concurrentRegistrationsAreNotLost() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            Set<Class<?>> dispatched = ConcurrentHashMap.newKeySet();
+            ErrorHandler handler = new ErrorHandler(t -> fail("default handler"));
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (Class<? extends Throwable> type : UNRELATED_TYPES) {
+                threads.add(new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    }
+                    handler.error(type, t -> dispatched.add(type));
+                }));
+            }
+            threads.forEach(Thread::start);
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            for (Class<? extends Throwable> type : UNRELATED_TYPES) {
+                handler.error(type.getDeclaredConstructor().newInstance());
+            }
+            assertEquals(new HashSet<>(UNRELATED_TYPES), dispatched);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.benbarkay.events;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class EventBridgeTest {
+
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("bridge", ".ring");
+        Files.delete(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void sharedMemoryBridgeDeliversEventsInOrder() throws Exception {
+        // A ring much smaller than the events sent through it, so that it wraps and fills up.
+        List<String> events = events(10000);
+        try (BridgedEventSource<String> source = BridgedEventSource.sharedMemory(
+                file, 4096, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR);
+             EventBridge<String> bridge = EventBridge.sharedMemory(
+                     file, 4096, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR)) {
+            Received received = new Received(source, events.size());
+            events.forEach(bridge::emit);
+            assertEquals(events, received.await());
+        }
+    }
+
+    @Test
+    public void socketBridgeDeliversEventsInOrder() throws Exception {
+        List<String> events = events(10000);
+        try (BridgedEventSource<String> source = BridgedEventSource.listen(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                EventCodec.utf8(),
+                EventBus.DIRECT_EXECUTOR)) {
+            Received received = new Received(source, events.size());
+            try (EventBridge<String> bridge = EventBridge.connect(
+                    source.address(), EventCodec.utf8(), EventBus.DIRECT_EXECUTOR)) {
+                events.forEach(bridge::emit);
+            }
+            assertEquals(events, received.await());
+        }
+    }
+
+    @Test
+    public void eventsSentWhileReceiverIsDownAreDeliveredOnceItOpens() throws Exception {
+        try (EventBridge<String> bridge = EventBridge.sharedMemory(
+                file, 4096, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR)) {
+            bridge.emit("a");
+            bridge.emit("b");
+        }
+        try (BridgedEventSource<String> source = BridgedEventSource.sharedMemory(
+                file, 4096, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR)) {
+            Received received = new Received(source, 2);
+            assertEquals(Arrays.asList("a", "b"), received.await());
+        }
+        // Neither end of a reopened ring sees the events which were already read.
+        try (BridgedEventSource<String> source = BridgedEventSource.sharedMemory(
+                file, 4096, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR);
+             EventBridge<String> bridge = EventBridge.sharedMemory(
+                     file, 4096, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR)) {
+            Received received = new Received(source, 1);
+            bridge.emit("c");
+            assertEquals(Collections.singletonList("c"), received.await());
+        }
+    }
+
+    @Test
+    public void undecodableEventsAreReportedToErrorHandlers() throws Exception {
+        EventCodec<String> failing = new EventCodec<String>() {
+            @Override
+            public byte[] encode(String event) {
+                return EventCodec.utf8().encode(event);
+            }
+
+            @Override
+            public String decode(byte[] bytes) {
+                String event = EventCodec.utf8().decode(bytes);
+                if (event.equals("bad")) {
+                    throw new IllegalArgumentException(event);
+                }
+                return event;
+            }
+        };
+        try (BridgedEventSource<String> source = BridgedEventSource.sharedMemory(
+                file, 4096, failing, EventBus.DIRECT_EXECUTOR);
+             EventBridge<String> bridge = EventBridge.sharedMemory(
+                     file, 4096, failing, EventBus.DIRECT_EXECUTOR)) {
+            CompletableFuture<Throwable> error = new CompletableFuture<>();
+            source.error(error::complete);
+            Received received = new Received(source, 1);
+            bridge.emit("bad");
+            bridge.emit("good");
+            assertEquals(Collections.singletonList("good"), received.await());
+            assertTrue(error.get(5, TimeUnit.SECONDS) instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void closingDoesNotWaitIndefinitelyForMissingReceiver() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+        try {
+            EventBridge<String> bridge = EventBridge.sharedMemory(file, 64, EventCodec.utf8(), executor)
+                    .onFailure(failures::add);
+            // Fills up the ring, which nothing reads from.
+            for (int i = 0; i < 10; i++) {
+                bridge.emit("event");
+            }
+            long start = System.nanoTime();
+            bridge.close(100, TimeUnit.MILLISECONDS);
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            assertFalse(failures.isEmpty());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void framesWhichDoNotFitBeforeTheEndOfTheRingAreSentFromItsStart() throws Exception {
+        SharedMemoryRing receiver = SharedMemoryRing.receiver(file, 64);
+        SharedMemoryRing sender = SharedMemoryRing.sender(file, 64);
+        // Frames of every size up to the largest, most of which wrap around at some point.
+        List<byte[]> frames = IntStream.range(0, 200).mapToObj(i -> {
+            byte[] frame = new byte[1 + (i * 7) % sender.maxFrameSize()];
+            Arrays.fill(frame, (byte) i);
+            return frame;
+        }).collect(Collectors.toList());
+        CompletableFuture<Void> sent = CompletableFuture.runAsync(() -> {
+            for (byte[] frame : frames) {
+                try {
+                    sender.send(ByteBuffer.wrap(frame));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        try {
+            for (byte[] frame : frames) {
+                ByteBuffer received = receiver.receive();
+                byte[] bytes = new byte[received.remaining()];
+                received.get(bytes);
+                assertArrayEquals(frame, bytes);
+            }
+            sent.get(5, TimeUnit.SECONDS);
+        } finally {
+            sender.close();
+            receiver.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eventLargerThanRingIsRejected() throws IOException {
+        try (EventBridge<String> bridge = EventBridge.sharedMemory(
+                file, 64, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR)) {
+            bridge.emit(String.join("", Collections.nCopies(64, "x")));
+        }
+    }
+
+    @Test
+    public void sharedMemoryBridgeDeliversEventsFromAnotherProcess() throws Exception {
+        int count = 1000;
+        try (BridgedEventSource<String> source = BridgedEventSource.sharedMemory(
+                file, 4096, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR)) {
+            Received received = new Received(source, count);
+            Process sender = new ProcessBuilder(
+                    Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"),
+                    Sender.class.getName(),
+                    file.toString(),
+                    String.valueOf(count))
+                    .redirectOutput(new File(File.separatorChar == '/' ? "/dev/null" : "NUL"))
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            assertEquals(events(count), received.await());
+            assertTrue(sender.waitFor(10, TimeUnit.SECONDS));
+            assertEquals(0, sender.exitValue());
+        }
+    }
+
+    private static List<String> events(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "event-" + i).collect(Collectors.toList());
+    }
+
+    /**
+     * Sends events through a shared memory bridge from another process.
+     */
+    public static class Sender {
+        public static void main(String[] args) throws IOException {
+            try (EventBridge<String> bridge = EventBridge.sharedMemory(
+                    Paths.get(args[0]), 4096, EventCodec.utf8(), EventBus.DIRECT_EXECUTOR)) {
+                events(Integer.parseInt(args[1])).forEach(bridge::emit);
+            }
+        }
+    }
+
+    private static class Received {
+        private final List<String> events;
+        private final CountDownLatch latch;
+
+        Received(EventSource<String> source, int count) {
+            events = Collections.synchronizedList(new ArrayList<>());
+            latch = new CountDownLatch(count);
+            source.consume(event -> {
+                events.add(event);
+                latch.countDown();
+            });
+        }
+
+        List<String> await() throws InterruptedException {
+            assertTrue("timed out waiting for events", latch.await(10, TimeUnit.SECONDS));
+            synchronized (events) {
+                return new ArrayList<>(events);
+            }
+        }
+    }
+}
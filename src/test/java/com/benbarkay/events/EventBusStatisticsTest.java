@@ -0,0 +1,114 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class EventBusStatisticsTest {
+
+    @Test
+    public void deliveriesAndFailuresAreCounted() {
+        EventBusStatistics statistics = new EventBusStatistics();
+        EventBus<Integer> bus = EventBus.blocking(statistics);
+        List<Throwable> errors = new ArrayList<>();
+        bus.consume(event -> {
+            if (event % 2 == 0) {
+                throw new IllegalStateException();
+            }
+        }).error(errors::add);
+        bus.consume(event -> {});
+
+        for (int i = 0; i < 10; i++) {
+            bus.emit(i);
+        }
+
+        assertEquals(10, statistics.emitted());
+        assertEquals(15, statistics.delivered());
+        assertEquals(5, statistics.failed());
+        assertEquals(5, errors.size());
+        assertEquals(20, statistics.handlerTime().count());
+        assertEquals(20, statistics.queueWait().count());
+    }
+
+    @Test
+    public void liveSubscriptionsAreTracked() {
+        EventBusStatistics statistics = new EventBusStatistics();
+        EventBus<Integer> bus = EventBus.blocking(statistics);
+        EventSubscription first = bus.consume(event -> {});
+        bus.consume(event -> {});
+        assertEquals(2, statistics.liveSubscriptions());
+
+        first.cancel();
+        first.cancel();
+        assertEquals(1, statistics.liveSubscriptions());
+    }
+
+    @Test
+    public void droppedEventsAreCounted() {
+        EventBusStatistics statistics = new EventBusStatistics();
+        EventBus<Integer> bus = EventBus.blocking(statistics);
+        EventSubscription subscription = bus.subscribeOnDemand(
+                (event, s) -> {}, EventBus.DIRECT_EXECUTOR, 2, OverflowPolicy.DROP_NEWEST);
+
+        bus.emitAll(Arrays.asList(1, 2, 3, 4));
+        assertEquals(2, statistics.dropped());
+
+        subscription.cancel();
+        assertEquals(4, statistics.dropped());
+        assertEquals(0, statistics.delivered());
+    }
+
+    @Test
+    public void eventsReachingCancelledSubscriptionsAreDropped() {
+        EventBusStatistics statistics = new EventBusStatistics();
+        EventBus<Integer> bus = EventBus.blocking(statistics);
+        AtomicReference<EventSubscription> second = new AtomicReference<>();
+        List<Integer> received = new ArrayList<>();
+        // Cancels the second subscription after the bus took its snapshot of the subscriptions.
+        bus.consume(event -> second.get().cancel());
+        second.set(bus.consume(received::add));
+
+        bus.emit(1);
+        assertEquals(1, statistics.dropped());
+
+        second.set(bus.consume(received::add));
+        bus.emitAll(Arrays.asList(2, 3));
+        assertEquals(3, statistics.dropped());
+        assertEquals(Collections.emptyList(), received);
+    }
+
+    @Test
+    public void bufferedDeliveriesReportQueueWait() {
+        EventBusStatistics statistics = new EventBusStatistics();
+        EventBus<Integer> bus = EventBus.blocking(statistics);
+        EventSubscription subscription = bus.subscribeOnDemand(
+                (event, s) -> {}, EventBus.DIRECT_EXECUTOR, 8, OverflowPolicy.BLOCK);
+
+        bus.emit(1);
+        bus.emit(2);
+        subscription.request(2);
+
+        assertEquals(2, statistics.delivered());
+        assertEquals(2, statistics.queueWait().count());
+    }
+
+    @Test
+    public void histogramPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        assertEquals(1000, histogram.count());
+        assertEquals(500_000, histogram.valueAtPercentile(50), 500_000 / 16.0);
+        assertEquals(990_000, histogram.valueAtPercentile(99), 990_000 / 16.0);
+        assertTrue(histogram.max() >= 1_000_000);
+        assertEquals(0, new LatencyHistogram().valueAtPercentile(50));
+    }
+}
@@ -9,6 +9,16 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
@@ -25,6 +35,107 @@ public class EventBusTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void onlyTheFirstCancelOfASubscriptionSucceeds() {
+        EventBus<String> bus = EventBus.blocking();
+        EventSubscription subscription = bus.consume(event -> {});
+        assertTrue(subscription.cancel());
+        assertFalse(subscription.cancel());
+        assertFalse(bus.hasSubscribers());
+    }
+
+    @Test
+    public void directExecutorDeliversOnEmittingThreadBeforeEmitReturns() throws Exception {
+        EventBus<String> bus = EventBus.blocking();
+        CompletableFuture<Thread> delivering = new CompletableFuture<>();
+        bus.subscribe((event, subscription) -> delivering.complete(Thread.currentThread()), EventBus.DIRECT_EXECUTOR);
+
+        CompletableFuture<Boolean> deliveredBeforeReturn = new CompletableFuture<>();
+        Thread emitter = new Thread(() -> {
+            bus.emit("a");
+            deliveredBeforeReturn.complete(delivering.isDone());
+        });
+        emitter.start();
+        emitter.join(5000);
+        assertTrue(deliveredBeforeReturn.get(5, TimeUnit.SECONDS));
+        assertSame(emitter, delivering.get());
+    }
+
+    @Test
+    public void concurrentSubscriptionsAreNeitherLostNorDeliveredToOnceCancelled() throws Exception {
+        EventBus<Long> bus = EventBus.blocking();
+        AtomicLong sequence = new AtomicLong();
+        AtomicBoolean emitting = new AtomicBoolean(true);
+        List<Recorder> kept = Collections.synchronizedList(new ArrayList<>());
+        List<Recorder> cancelled = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> emitters = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                emitters.add(executor.submit(() -> {
+                    while (emitting.get()) {
+                        bus.emit(sequence.incrementAndGet());
+                    }
+                }));
+            }
+            List<Future<?>> churners = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                churners.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        Recorder recorder = new Recorder();
+                        recorder.subscription = bus.consume(recorder);
+                        if (j % 2 == 0) {
+                            kept.add(recorder);
+                        } else {
+                            assertTrue(recorder.subscription.cancel());
+                            // Any event numbered past this one was emitted after cancel() returned.
+                            recorder.cutoff = sequence.get();
+                            cancelled.add(recorder);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> churner : churners) {
+                churner.get(10, TimeUnit.SECONDS);
+            }
+            emitting.set(false);
+            for (Future<?> emitter : emitters) {
+                emitter.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Recorder recorder : cancelled) {
+            assertTrue(recorder.latest.get() <= recorder.cutoff);
+        }
+        bus.emit(Recorder.MARKER);
+        assertEquals(1000, kept.size());
+        for (Recorder recorder : kept) {
+            assertTrue(recorder.marked);
+            recorder.subscription.cancel();
+        }
+        assertFalse(bus.hasSubscribers());
+    }
+
+    private static class Recorder implements Consumer<Long> {
+        static final long MARKER = -1;
+
+        final AtomicLong latest = new AtomicLong();
+        volatile boolean marked;
+        EventSubscription subscription;
+        long cutoff;
+
+        @Override
+        public void accept(Long event) {
+            if (event == MARKER) {
+                marked = true;
+            } else {
+                latest.accumulateAndGet(event, Math::max);
+            }
+        }
+    }
+
     @Test
     public void peekIsGarbageCollectedWhenNoReferenceAndNoSubscribers() {
         List<String> expected = Collections.emptyList();
@@ -92,4 +203,255 @@ public class EventBusTest {
 
         assertEquals(expected, future.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void consecutiveStagesAreFusedIntoSingleSubscription() {
+        List<Integer> expected = Arrays.asList(20, 40);
+        List<Integer> actual = new ArrayList<>(expected.size());
+        List<Integer> subscribed = new ArrayList<>();
+        EventBus<Integer> bus = EventBus.blocking();
+        EventSource<Integer> source = new EventSource<Integer>() {
+            @Override
+            public Executor executor() {
+                return bus.executor();
+            }
+
+            @Override
+            public EventSubscription subscribe(EventSubscriber<Integer> subscriber, Executor executor) {
+                subscribed.add(subscribed.size());
+                return bus.subscribe(subscriber, executor);
+            }
+
+            @Override
+            public <E extends Throwable> EventSource<Integer> error(Class<E> type, Consumer<E> consumer) {
+                return bus.error(type, consumer);
+            }
+        };
+        source.filter(i -> i > 0)
+                .map(i -> i * 10)
+                .filter(i -> i % 20 == 0)
+                .consume(actual::add);
+
+        Stream.of(0, 1, 2, 3, 4).forEach(bus::emit);
+        assertEquals(expected, actual);
+        assertEquals(1, subscribed.size());
+    }
+
+    @Test
+    public void derivedSourceUnsubscribesUpstreamOnceLastSubscriptionIsCancelled() {
+        List<Integer> mapped = new ArrayList<>();
+        EventBus<Integer> bus = EventBus.blocking();
+        EventSource<Integer> source = bus.map(i -> {
+            mapped.add(i);
+            return i;
+        });
+        EventSubscription first = source.consume(i -> {});
+        EventSubscription second = source.consume(i -> {});
+        bus.emit(1);
+
+        first.cancel();
+        assertTrue(bus.hasSubscribers());
+        second.cancel();
+        assertFalse(bus.hasSubscribers());
+
+        bus.emit(2);
+        assertEquals(Collections.singletonList(1), mapped);
+    }
+
+    @Test
+    public void derivedSourceResubscribesUpstreamWhenSubscribedAgain() {
+        List<Integer> actual = new ArrayList<>();
+        EventBus<Integer> bus = EventBus.blocking();
+        EventSource<Integer> source = bus.filter(i -> i > 0).map(i -> i * 10);
+        source.consume(actual::add).cancel();
+        bus.emit(1);
+
+        source.consume(actual::add);
+        bus.emit(2);
+
+        assertEquals(Collections.singletonList(20), actual);
+    }
+
+    @Test
+    public void cancellingUnfusedChainCascadesUpstream() {
+        EventBus<Integer> bus = EventBus.blocking();
+        EventSubscription subscription = bus.map(i -> i + 1)
+                .map(i -> i * 2, Runnable::run)
+                .consume(i -> {});
+        assertTrue(bus.hasSubscribers());
+
+        subscription.cancel();
+        assertFalse(bus.hasSubscribers());
+    }
+
+    @Test
+    public void fusedStageErrorsAreReportedToTheFailingStage() {
+        List<Throwable> errors = new ArrayList<>();
+        List<Integer> actual = new ArrayList<>();
+        EventBus<Integer> bus = EventBus.blocking();
+        bus.map(i -> {
+                    if (i == 1) {
+                        throw new IllegalArgumentException();
+                    }
+                    return i;
+                })
+                .error(errors::add)
+                .filter(i -> true)
+                .consume(actual::add);
+
+        Stream.of(0, 1, 2).forEach(bus::emit);
+        assertEquals(Arrays.asList(0, 2), actual);
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void batchSubscriberReceivesEmittedBatchInSingleCall() {
+        List<String> expected = Arrays.asList("1", "2", "3");
+        List<List<String>> actual = new ArrayList<>();
+        EventBus<String> bus = EventBus.blocking();
+        bus.subscribe((BatchEventSubscriber<String>) (events, subscription) -> actual.add(events));
+
+        bus.emitAll(expected);
+        assertEquals(Collections.singletonList(expected), actual);
+    }
+
+    @Test
+    public void batchIsUnrolledForPerEventSubscribers() {
+        List<String> expected = Arrays.asList("1", "2", "3");
+        List<String> actual = new ArrayList<>(expected.size());
+        EventBus<String> bus = EventBus.blocking();
+        bus.consume(actual::add);
+
+        bus.emitAll(expected);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void onDemandSubscriptionDeliversOnlyRequestedEvents() {
+        List<String> actual = new ArrayList<>();
+        EventBus<String> bus = EventBus.blocking();
+        EventSubscription subscription = bus.subscribeOnDemand(
+                (e, s) -> actual.add(e), bus.executor(), 8, OverflowPolicy.FAIL);
+
+        Stream.of("1", "2", "3").forEach(bus::emit);
+        assertEquals(Collections.emptyList(), actual);
+        assertEquals(3, subscription.buffered());
+
+        subscription.request(2);
+        assertEquals(Arrays.asList("1", "2"), actual);
+        assertEquals(1, subscription.buffered());
+    }
+
+    @Test
+    public void boundedSubscriptionAppliesOverflowPolicy() {
+        EventBus<String> bus = EventBus.blocking();
+        List<String> dropNewest = new ArrayList<>();
+        List<String> dropOldest = new ArrayList<>();
+        List<String> conflate = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        EventSubscription[] subscriptions = {
+                bus.subscribeOnDemand((e, s) -> dropNewest.add(e), bus.executor(), 2, OverflowPolicy.DROP_NEWEST),
+                bus.subscribeOnDemand((e, s) -> dropOldest.add(e), bus.executor(), 2, OverflowPolicy.DROP_OLDEST),
+                bus.subscribeOnDemand((e, s) -> conflate.add(e), bus.executor(), 2, OverflowPolicy.CONFLATE),
+                bus.subscribeOnDemand((e, s) -> {}, bus.executor(), 2, OverflowPolicy.FAIL)
+                        .error(EventOverflowException.class, errors::add)
+        };
+
+        Stream.of("1", "2", "3").forEach(bus::emit);
+        Arrays.stream(subscriptions).forEach(s -> s.request(Long.MAX_VALUE));
+
+        assertEquals(Arrays.asList("1", "2"), dropNewest);
+        assertEquals(Arrays.asList("2", "3"), dropOldest);
+        assertEquals(Collections.singletonList("3"), conflate);
+        assertEquals(1, errors.size());
+    }
+
+    @Test
+    public void blockingSubscriptionBlocksEmitterOfSingleThreadedBus() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        EventBus<Integer> bus = EventBus.create(executor);
+        List<Integer> actual = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(10);
+        bus.subscribe((e, s) -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            actual.add(e);
+            done.countDown();
+        }, bus.executor(), 2, OverflowPolicy.BLOCK);
+
+        AtomicInteger emitted = new AtomicInteger();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < 10; i++) {
+                bus.emit(i);
+                emitted.incrementAndGet();
+            }
+        });
+        try {
+            producer.start();
+            // One event is being accepted, and two more fill the buffer.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((emitted.get() < 3 || producer.getState() != Thread.State.WAITING)
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(Thread.State.WAITING, producer.getState());
+            assertEquals(3, emitted.get());
+
+            release.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            producer.join(10_000);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), actual);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void derivedSourceRejectsBlockingSubscriptionsWaitingOnTheirStages() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            EventBus.<Integer>create(executor)
+                    .map(i -> i + 1)
+                    .subscribe((e, s) -> {}, executor, 2, OverflowPolicy.BLOCK);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void sourcesWithOnlyPlainSubscriptionsAreRelayedThroughBoundedBuffers() {
+        EventBus<String> bus = EventBus.blocking();
+        EventSource<String> source = new EventSource<String>() {
+            @Override
+            public Executor executor() {
+                return bus.executor();
+            }
+
+            @Override
+            public EventSubscription subscribe(EventSubscriber<String> subscriber, Executor executor) {
+                return bus.subscribe(subscriber, executor);
+            }
+
+            @Override
+            public <E extends Throwable> EventSource<String> error(Class<E> type, Consumer<E> consumer) {
+                return bus.error(type, consumer);
+            }
+        };
+        List<String> actual = new ArrayList<>();
+        EventSubscription subscription = source.subscribeOnDemand(
+                (e, s) -> actual.add(e), EventBus.DIRECT_EXECUTOR, 2, OverflowPolicy.DROP_OLDEST);
+
+        Stream.of("1", "2", "3").forEach(bus::emit);
+        assertEquals(2, subscription.buffered());
+        subscription.request(1);
+        assertEquals(Collections.singletonList("2"), actual);
+
+        subscription.cancel();
+        assertFalse(bus.hasSubscribers());
+    }
+}
@@ -0,0 +1,197 @@
+package com.benbarkay.events;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class EventJournalTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    public void journaledEventsAreEmittedAndSurviveReopening() throws IOException {
+        EventBus<String> bus = EventBus.blocking();
+        List<String> emitted = new ArrayList<>();
+        bus.consume(emitted::add);
+        try (EventJournal<String> journal = EventJournal.open(directory, EventCodec.utf8(), bus)) {
+            journal.emit("a");
+            journal.emit("b");
+        }
+        assertEquals(Arrays.asList("a", "b"), emitted);
+
+        List<String> replayed = new ArrayList<>();
+        try (EventJournal<String> journal = EventJournal.open(directory, EventCodec.utf8(), bus)) {
+            assertEquals(2, journal.size());
+            journal.emit("c");
+            journal.replay(0).consume(replayed::add);
+            journal.emit("d");
+        }
+        assertEquals(Arrays.asList("a", "b", "c", "d"), replayed);
+    }
+
+    @Test
+    public void replayStartsAtOffsetAcrossSegments() throws IOException {
+        List<String> events = IntStream.range(0, 100).mapToObj(String::valueOf).collect(Collectors.toList());
+        List<String> replayed = new ArrayList<>();
+        try (EventJournal<String> journal = EventJournal.open(
+                directory, EventCodec.utf8(), EventBus.blocking(), 64, EventJournal.SyncPolicy.always())) {
+            events.forEach(journal::emit);
+            journal.replay(42).consume(replayed::add);
+        }
+
+        assertTrue(segments().size() > 1);
+        assertEquals(events.subList(42, 100), replayed);
+        try (EventJournal<String> journal = EventJournal.open(
+                directory, EventCodec.utf8(), EventBus.blocking(), 64, EventJournal.SyncPolicy.never())) {
+            assertEquals(100, journal.size());
+        }
+    }
+
+    @Test
+    public void tornRecordIsDiscardedOnOpen() throws IOException {
+        try (EventJournal<String> journal = EventJournal.open(
+                directory, EventCodec.utf8(), EventBus.blocking(), 1024, EventJournal.SyncPolicy.always())) {
+            journal.emit("intact");
+            journal.emit("torn");
+        }
+        Path segment = segments().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Corrupts the payload of the second record, which follows the 8-byte header
+            // and 6-byte payload of the first.
+            file.seek(8 + 6 + 8);
+            file.write('x');
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (EventJournal<String> journal = EventJournal.open(
+                directory, EventCodec.utf8(), EventBus.blocking(), 1024, EventJournal.SyncPolicy.never())) {
+            assertEquals(1, journal.size());
+            journal.emit("appended");
+            journal.replay(0).consume(replayed::add);
+        }
+        assertEquals(Arrays.asList("intact", "appended"), replayed);
+    }
+
+    @Test
+    public void emptyEventsAreJournaled() throws IOException {
+        List<String> live = new ArrayList<>();
+        try (EventJournal<String> journal = EventJournal.open(directory, EventCodec.utf8(), EventBus.blocking())) {
+            journal.emit("a");
+            journal.emit("");
+            journal.emit("b");
+            journal.replay(0).consume(live::add);
+        }
+        assertEquals(Arrays.asList("a", "", "b"), live);
+
+        List<String> replayed = new ArrayList<>();
+        try (EventJournal<String> journal = EventJournal.open(directory, EventCodec.utf8(), EventBus.blocking())) {
+            assertEquals(3, journal.size());
+            journal.emit("c");
+            journal.replay(0).consume(replayed::add);
+        }
+        assertEquals(Arrays.asList("a", "", "b", "c"), replayed);
+    }
+
+    @Test
+    public void tornRecordInEarlierSegmentDiscardsLaterSegments() throws IOException {
+        List<String> events = IntStream.range(0, 20).mapToObj(String::valueOf).collect(Collectors.toList());
+        try (EventJournal<String> journal = EventJournal.open(
+                directory, EventCodec.utf8(), EventBus.blocking(), 64, EventJournal.SyncPolicy.always())) {
+            events.forEach(journal::emit);
+        }
+        List<Path> segments = segments();
+        segments.sort(Comparator.naturalOrder());
+        assertTrue(segments.size() > 2);
+        try (RandomAccessFile file = new RandomAccessFile(segments.get(0).toFile(), "rw")) {
+            // Corrupts the payload of the second record, which follows the 8-byte header
+            // and 1-byte payload of the first.
+            file.seek(8 + 1 + 8);
+            file.write('x');
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (EventJournal<String> journal = EventJournal.open(
+                directory, EventCodec.utf8(), EventBus.blocking(), 64, EventJournal.SyncPolicy.never())) {
+            assertEquals(1, journal.size());
+            journal.emit("appended");
+            journal.replay(0).consume(replayed::add);
+        }
+        assertEquals(Arrays.asList("0", "appended"), replayed);
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    public void concurrentEmittersAreEmittedInJournalOrder() throws Exception {
+        EventBus<String> bus = EventBus.blocking();
+        List<String> emitted = Collections.synchronizedList(new ArrayList<>());
+        bus.consume(emitted::add);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (EventJournal<String> journal = EventJournal.open(directory, EventCodec.utf8(), bus)) {
+            List<Future<?>> emitters = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String prefix = i + "-";
+                emitters.add(executor.submit(() -> {
+                    for (int j = 0; j < 1000; j++) {
+                        journal.emit(prefix + j);
+                    }
+                }));
+            }
+            for (Future<?> emitter : emitters) {
+                emitter.get(10, TimeUnit.SECONDS);
+            }
+            List<String> replayed = new ArrayList<>();
+            journal.replay(0).consume(replayed::add).cancel();
+            assertEquals(4000, replayed.size());
+            assertEquals(replayed, emitted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eventLargerThanSegmentIsRejected() throws IOException {
+        try (EventJournal<String> journal = EventJournal.open(
+                directory, EventCodec.utf8(), EventBus.blocking(), 16, EventJournal.SyncPolicy.never())) {
+            journal.emit("more than eight bytes");
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.collect(Collectors.toList());
+        }
+    }
+}
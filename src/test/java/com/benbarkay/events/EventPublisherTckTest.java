@@ -0,0 +1,91 @@
+package com.benbarkay.events;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.tck.PublisherVerification;
+import org.reactivestreams.tck.TestEnvironment;
+
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Verifies {@link ReactiveStreams#toPublisher(EventSource, Executor, int, OverflowPolicy)} against
+ * the Reactive Streams TCK. Event sources never complete, so rules which require completion
+ * are skipped.
+ */
+public class EventPublisherTckTest extends PublisherVerification<Long> {
+
+    public EventPublisherTckTest() {
+        super(new TestEnvironment(300));
+    }
+
+    @Override
+    public Publisher<Long> createPublisher(long elements) {
+        return ReactiveStreams.toPublisher(new CountingSource(elements), EventBus.DIRECT_EXECUTOR, 16, OverflowPolicy.BLOCK);
+    }
+
+    @Override
+    public Publisher<Long> createFailedPublisher() {
+        return ReactiveStreams.toPublisher(new UnavailableSource(), EventBus.DIRECT_EXECUTOR, 16, OverflowPolicy.BLOCK);
+    }
+
+    @Override
+    public long maxElementsFromPublisher() {
+        return publisherUnableToSignalOnComplete();
+    }
+
+    /**
+     * Emits the specified number of events to each of its subscribers, from a thread of its own
+     * which waits for room in their buffers. Only supports plain subscriptions, so publishers
+     * subscribe to it through a relay.
+     */
+    private static class CountingSource implements EventSource<Long> {
+
+        private final long elements;
+
+        CountingSource(long elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public Executor executor() {
+            return EventBus.DIRECT_EXECUTOR;
+        }
+
+        @Override
+        public EventSubscription subscribe(EventSubscriber<Long> subscriber, Executor executor) {
+            EventBus<Long> bus = EventBus.blocking();
+            EventSubscription subscription = bus.subscribe(subscriber, executor);
+            Thread producer = new Thread(() -> {
+                for (long i = 0; i < elements && bus.hasSubscribers(); i++) {
+                    bus.emit(i);
+                }
+            });
+            producer.setDaemon(true);
+            producer.start();
+            return subscription;
+        }
+
+        @Override
+        public <E extends Throwable> EventSource<Long> error(Class<E> type, Consumer<E> consumer) {
+            return this;
+        }
+    }
+
+    private static class UnavailableSource implements EventSource<Long> {
+
+        @Override
+        public Executor executor() {
+            return EventBus.DIRECT_EXECUTOR;
+        }
+
+        @Override
+        public EventSubscription subscribe(EventSubscriber<Long> subscriber, Executor executor) {
+            throw new IllegalStateException("source is unavailable");
+        }
+
+        @Override
+        public <E extends Throwable> EventSource<Long> error(Class<E> type, Consumer<E> consumer) {
+            return this;
+        }
+    }
+}
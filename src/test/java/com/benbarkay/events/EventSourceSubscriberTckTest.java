@@ -0,0 +1,53 @@
+package com.benbarkay.events;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.reactivestreams.tck.SubscriberWhiteboxVerification;
+import org.reactivestreams.tck.TestEnvironment;
+
+/**
+ * Verifies the subscriber through which {@link ReactiveStreams#toEventSource(org.reactivestreams.Publisher,
+ * java.util.concurrent.Executor, int)} subscribes to publishers against the Reactive Streams TCK.
+ */
+public class EventSourceSubscriberTckTest extends SubscriberWhiteboxVerification<Integer> {
+
+    public EventSourceSubscriberTckTest() {
+        super(new TestEnvironment(300));
+    }
+
+    @Override
+    public Subscriber<Integer> createSubscriber(WhiteboxSubscriberProbe<Integer> probe) {
+        return new PublisherEventSource.RelayingSubscriber<Integer>(
+                (event, subscription) -> probe.registerOnNext(event),
+                probe::registerOnError,
+                EventBus.DIRECT_EXECUTOR,
+                1) {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                super.onSubscribe(subscription);
+                probe.registerOnSubscribe(new SubscriberPuppet() {
+                    @Override
+                    public void triggerRequest(long elements) {
+                        subscription.request(elements);
+                    }
+
+                    @Override
+                    public void signalCancel() {
+                        cancel();
+                    }
+                });
+            }
+
+            @Override
+            public void onComplete() {
+                super.onComplete();
+                probe.registerOnComplete();
+            }
+        };
+    }
+
+    @Override
+    public Integer createElement(int element) {
+        return element;
+    }
+}
@@ -0,0 +1,90 @@
+package com.benbarkay.events;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class EventTracingTest {
+
+    private InMemoryEventTracer tracer;
+
+    @Before
+    public void setUp() {
+        tracer = new InMemoryEventTracer();
+        EventTracing.install(tracer);
+    }
+
+    @After
+    public void tearDown() {
+        EventTracing.install(EventTracer.NONE);
+    }
+
+    @Test
+    public void spansFollowEventsThroughStagesAndForwarding() {
+        EventBus<Integer> source = EventBus.blocking();
+        EventBus<String> target = EventBus.blocking();
+        List<EventTracer.Span> current = new ArrayList<>();
+        target.consume(e -> current.add(tracer.current()));
+        source.filter(e -> e > 0).map(String::valueOf).forward(target);
+
+        source.emit(1);
+
+        InMemoryEventTracer.RecordedSpan delivery = (InMemoryEventTracer.RecordedSpan) current.get(0);
+        assertEquals("deliver", delivery.name());
+        assertEquals(
+                "emit > deliver > emit > deliver > emit > deliver",
+                path(delivery));
+        List<String> stages = tracer.spans().stream()
+                .filter(span -> span.name().equals("filter") || span.name().equals("map"))
+                .map(EventTracingTest::path)
+                .collect(Collectors.toList());
+        assertEquals(2, stages.size());
+        assertTrue(stages.contains("emit > deliver > filter"));
+        assertTrue(stages.contains("emit > deliver > map"));
+        assertNull(tracer.current());
+    }
+
+    @Test
+    public void spanIsRestoredOnSubscriberExecutor() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            EventBus<Integer> bus = EventBus.blocking();
+            CompletableFuture<EventTracer.Span> current = new CompletableFuture<>();
+            bus.consume(e -> current.complete(tracer.current()), executor);
+
+            bus.emit(1);
+
+            InMemoryEventTracer.RecordedSpan delivery =
+                    (InMemoryEventTracer.RecordedSpan) current.get(5, TimeUnit.SECONDS);
+            assertEquals("emit > deliver", path(delivery));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void busesCreatedWithoutTracerAreNotTraced() {
+        EventTracing.install(EventTracer.NONE);
+        EventBus<Integer> bus = EventBus.blocking();
+        bus.consume(e -> {});
+        EventTracing.install(tracer);
+
+        bus.emit(1);
+
+        assertTrue(tracer.spans().isEmpty());
+    }
+
+    private static String path(InMemoryEventTracer.RecordedSpan span) {
+        return span.parent() == null ? span.name() : path(span.parent()) + " > " + span.name();
+    }
+}
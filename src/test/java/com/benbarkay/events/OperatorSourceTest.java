@@ -0,0 +1,150 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class OperatorSourceTest {
+
+    @Test
+    public void bufferByCountEmitsFullLists() {
+        EventBus<Integer> bus = EventBus.blocking();
+        List<List<Integer>> actual = new ArrayList<>();
+        bus.buffer(2).consume(actual::add);
+
+        for (int i = 0; i < 5; i++) {
+            bus.emit(i);
+        }
+
+        assertEquals(Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2, 3)), actual);
+    }
+
+    @Test
+    public void bufferByTimeEmitsEventsOfEachPeriod() throws InterruptedException {
+        EventBus<Integer> bus = EventBus.blocking();
+        BlockingQueue<List<Integer>> actual = new LinkedBlockingQueue<>();
+        bus.buffer(20, TimeUnit.MILLISECONDS).consume(actual::add);
+
+        bus.emit(1);
+        bus.emit(2);
+        // The events may straddle the end of a period.
+        List<Integer> received = new ArrayList<>(actual.poll(5, TimeUnit.SECONDS));
+        if (received.size() < 2) {
+            received.addAll(actual.poll(5, TimeUnit.SECONDS));
+        }
+        assertEquals(Arrays.asList(1, 2), received);
+        bus.emit(3);
+        assertEquals(Collections.singletonList(3), actual.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void slidingWindowRepeatsRecentEvents() throws InterruptedException {
+        EventBus<Integer> bus = EventBus.blocking();
+        BlockingQueue<List<Integer>> actual = new LinkedBlockingQueue<>();
+        bus.window(10_000, 20, TimeUnit.MILLISECONDS).consume(actual::add);
+
+        bus.emit(1);
+        assertEquals(Collections.singletonList(1), actual.poll(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(1), actual.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void tumblingWindowEmitsEachEventOnce() throws InterruptedException {
+        EventBus<Integer> bus = EventBus.blocking();
+        BlockingQueue<List<Integer>> actual = new LinkedBlockingQueue<>();
+        bus.window(20, 20, TimeUnit.MILLISECONDS).consume(actual::add);
+
+        bus.emit(1);
+        assertEquals(Collections.singletonList(1), actual.poll(5, TimeUnit.SECONDS));
+        assertNull(actual.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void hoppingWindowDropsEventsBetweenWindows() throws InterruptedException {
+        EventBus<Integer> bus = EventBus.blocking();
+        BlockingQueue<List<Integer>> actual = new LinkedBlockingQueue<>();
+        bus.window(10, 100, TimeUnit.MILLISECONDS).consume(actual::add);
+
+        // At least a millisecond apart, so that no more than 11 events fit in a window.
+        List<Integer> window = null;
+        for (int i = 0; window == null && i < 5_000; i++) {
+            bus.emit(i);
+            window = actual.poll(1, TimeUnit.MILLISECONDS);
+        }
+        assertNotNull(window);
+        assertFalse(window.isEmpty());
+        assertTrue(window.size() <= 11);
+        assertFalse(window.contains(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowIsValidatedEagerly() {
+        EventBus.<Integer>blocking().window(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void debounceEmitsLastEventAfterQuietPeriod() throws InterruptedException {
+        EventBus<Integer> bus = EventBus.blocking();
+        BlockingQueue<Integer> actual = new LinkedBlockingQueue<>();
+        bus.debounce(50, TimeUnit.MILLISECONDS).consume(actual::add);
+
+        for (int i = 0; i < 5; i++) {
+            bus.emit(i);
+        }
+
+        assertEquals(4, (int) actual.poll(5, TimeUnit.SECONDS));
+        assertNull(actual.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void throttleEmitsFirstEventOfEachInterval() {
+        EventBus<Integer> bus = EventBus.blocking();
+        List<Integer> actual = new ArrayList<>();
+        bus.throttle(1, TimeUnit.HOURS).consume(actual::add);
+
+        for (int i = 0; i < 5; i++) {
+            bus.emit(i);
+        }
+
+        assertEquals(Collections.singletonList(0), actual);
+    }
+
+    @Test
+    public void sampleEmitsLastEventOfEachInterval() throws InterruptedException {
+        EventBus<Integer> bus = EventBus.blocking();
+        BlockingQueue<Integer> actual = new LinkedBlockingQueue<>();
+        bus.sample(20, TimeUnit.MILLISECONDS).consume(actual::add);
+
+        for (int i = 0; i < 5; i++) {
+            bus.emit(i);
+        }
+
+        assertEquals(4, (int) actual.poll(5, TimeUnit.SECONDS));
+        assertNull(actual.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void operatorIsDisconnectedOnceLastSubscriptionIsCancelled() {
+        EventBus<Integer> bus = EventBus.blocking();
+        List<List<Integer>> actual = new ArrayList<>();
+        EventSource<List<Integer>> buffered = bus.buffer(2);
+        EventSubscription subscription = buffered.consume(actual::add);
+        bus.emit(1);
+
+        subscription.cancel();
+        assertFalse(bus.hasSubscribers());
+
+        buffered.consume(actual::add);
+        bus.emit(2);
+        bus.emit(3);
+        assertEquals(Collections.singletonList(Arrays.asList(2, 3)), actual);
+    }
+}
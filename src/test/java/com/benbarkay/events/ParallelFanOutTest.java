@@ -0,0 +1,94 @@
+package com.benbarkay.events;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class ParallelFanOutTest {
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void eachSubscriptionReceivesEventsInOrder() {
+        EventBus<Integer> bus = EventBus.parallel(EventBus.DIRECT_EXECUTOR, pool, 16);
+        List<List<Integer>> received = new ArrayList<>();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 1000; i++) {
+            List<Integer> events = new ArrayList<>();
+            received.add(events);
+            bus.consume(event -> {
+                threads.add(Thread.currentThread());
+                events.add(event);
+            });
+        }
+
+        for (int i = 0; i < 100; i++) {
+            bus.emit(i);
+        }
+
+        List<Integer> expected = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        for (List<Integer> events : received) {
+            assertEquals(expected, events);
+        }
+        assertTrue(threads.stream().anyMatch(thread ->
+                thread instanceof ForkJoinWorkerThread && ((ForkJoinWorkerThread) thread).getPool() == pool));
+    }
+
+    @Test
+    public void batchesAreHandedToAllSubscriptions() {
+        EventBus<Integer> bus = EventBus.parallel(EventBus.DIRECT_EXECUTOR, pool, 4);
+        List<List<Integer>> received = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            List<Integer> events = new ArrayList<>();
+            received.add(events);
+            bus.consume(events::add);
+        }
+
+        bus.emitAll(Arrays.asList(1, 2, 3));
+
+        for (List<Integer> events : received) {
+            assertEquals(Arrays.asList(1, 2, 3), events);
+        }
+    }
+
+    @Test
+    public void smallSubscriberSetsAreDeliveredOnEmittingThread() {
+        EventBus<Integer> bus = EventBus.parallel(EventBus.DIRECT_EXECUTOR, pool, 16);
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 16; i++) {
+            bus.consume(event -> threads.add(Thread.currentThread()));
+        }
+
+        bus.emit(1);
+
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void chunkSizeMustBePositive() {
+        EventBus.parallel(EventBus.DIRECT_EXECUTOR, pool, 0);
+    }
+}
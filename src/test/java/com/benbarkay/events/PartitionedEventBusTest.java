@@ -0,0 +1,82 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PartitionedEventBusTest {
+    @Test
+    public void eventsOfEachKeyAreDeliveredInOrder() throws InterruptedException {
+        int keys = 32;
+        int eventsPerKey = 1000;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        PartitionedEventBus<Integer, int[]> bus = PartitionedEventBus.create(e -> e[0], 8, pool);
+        Map<Integer, List<Integer>> received = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(keys * eventsPerKey);
+        bus.map(e -> e)
+                .consume(e -> {
+                    received.computeIfAbsent(e[0], k -> Collections.synchronizedList(new ArrayList<>()))
+                            .add(e[1]);
+                    done.countDown();
+                });
+
+        for (int i = 0; i < eventsPerKey; i++) {
+            for (int key = 0; key < keys; key++) {
+                bus.emit(new int[] { key, i });
+            }
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int key = 0; key < keys; key++) {
+            List<Integer> events = received.get(key);
+            for (int i = 0; i < eventsPerKey; i++) {
+                assertEquals(i, (int) events.get(i));
+            }
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void partitionReceivesOnlyEventsOfItsKey() {
+        List<String> actual = new ArrayList<>();
+        PartitionedEventBus<Character, String> bus = PartitionedEventBus.create(
+                s -> s.charAt(0), 2, EventBus.DIRECT_EXECUTOR);
+        bus.partition('a').consume(actual::add);
+
+        bus.emit("a1");
+        bus.emit("b1");
+        bus.emit("c1");
+        bus.emit("a2");
+
+        assertEquals(Arrays.asList("a1", "a2"), actual);
+    }
+
+    @Test
+    public void skewReflectsDistributionOfEventsBetweenLanes() {
+        PartitionedEventBus<Integer, Integer> bus = PartitionedEventBus.create(
+                e -> e, 4, EventBus.DIRECT_EXECUTOR);
+        assertEquals(0, bus.skew(), 0);
+
+        for (int i = 0; i < 400; i++) {
+            bus.emit(i);
+        }
+        assertEquals(1, bus.skew(), 0);
+
+        for (int i = 0; i < 400; i++) {
+            bus.emit(0);
+        }
+        assertEquals(100 + 400, bus.emitted(0));
+        assertEquals((double) 500 * 4 / 800, bus.skew(), 0.0001);
+    }
+}
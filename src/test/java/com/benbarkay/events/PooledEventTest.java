@@ -0,0 +1,202 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+
+public class PooledEventTest {
+
+    @Test
+    public void eventsAreReusedOnceAllSubscribersProcessedThem() {
+        EventPool<Tick> pool = EventPool.create(Tick::new, 16);
+        EventBus<Tick> bus = EventBus.pooled(EventBus.DIRECT_EXECUTOR);
+        List<Long> received = new ArrayList<>();
+        bus.consume(tick -> received.add(tick.value()));
+        bus.consume(tick -> received.add(tick.value()));
+
+        for (long i = 0; i < 1000; i++) {
+            bus.emit(pool.acquire().value(i));
+        }
+
+        assertEquals(2000, received.size());
+        assertEquals(1, pool.created());
+    }
+
+    @Test
+    public void eventsAreNotReusedWhileSubscribersOnOtherThreadsProcessThem() throws Exception {
+        EventPool<Tick> pool = EventPool.create(Tick::new, 64);
+        EventBus<Tick> bus = EventBus.pooled(EventBus.DIRECT_EXECUTOR);
+        List<ExecutorService> executors = new ArrayList<>();
+        List<List<Long>> received = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(3 * 1000);
+        for (int i = 0; i < 3; i++) {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            executors.add(executor);
+            List<Long> values = new ArrayList<>();
+            received.add(values);
+            bus.subscribe((tick, subscription) -> {
+                values.add(tick.value());
+                done.countDown();
+            }, executor);
+        }
+
+        try {
+            for (long i = 0; i < 1000; i++) {
+                bus.emit(pool.acquire().value(i));
+            }
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            executors.forEach(ExecutorService::shutdown);
+        }
+
+        List<Long> expected = LongStream.range(0, 1000).boxed().collect(Collectors.toList());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(expected, received.get(i));
+        }
+        assertTrue(pool.created() < 1000);
+    }
+
+    @Test
+    public void retainedEventsAreReusedOnlyOnceReleased() {
+        EventPool<Tick> pool = EventPool.create(Tick::new, 16);
+        EventBus<Tick> bus = EventBus.pooled(EventBus.DIRECT_EXECUTOR);
+        AtomicReference<Tick> retained = new AtomicReference<>();
+        bus.consume(tick -> {
+            tick.retain();
+            retained.set(tick);
+        });
+
+        Tick tick = pool.acquire().value(1);
+        bus.emit(tick);
+        assertNotSame(tick, pool.acquire());
+        assertEquals(1, retained.get().value());
+
+        retained.get().release();
+        assertSame(tick, pool.acquire());
+    }
+
+    @Test
+    public void droppedEventsAreReturnedToPool() {
+        EventPool<Tick> pool = EventPool.create(Tick::new, 16);
+        EventBus<Tick> bus = EventBus.pooled(EventBus.DIRECT_EXECUTOR);
+        EventSubscription subscription = bus.subscribeOnDemand(
+                (tick, s) -> fail(), EventBus.DIRECT_EXECUTOR, 1, OverflowPolicy.DROP_NEWEST);
+
+        List<Tick> emitted = new ArrayList<>();
+        for (long i = 0; i < 3; i++) {
+            emitted.add(pool.acquire().value(i));
+        }
+        // The first event is buffered, and the others are dropped.
+        emitted.forEach(bus::emit);
+        subscription.cancel();
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(emitted.contains(pool.acquire()));
+        }
+        assertEquals(3, pool.created());
+    }
+
+    @Test
+    public void eventsDroppedByCancelledSubscriptionsAreReleased() {
+        EventPool<Tick> pool = EventPool.create(Tick::new, 4);
+        EventBus<Tick> bus = EventBus.pooled(EventBus.DIRECT_EXECUTOR);
+        AtomicReference<EventSubscription> second = new AtomicReference<>();
+        bus.consume(tick -> second.get().cancel());
+        second.set(bus.consume(tick -> fail()));
+
+        Tick tick = pool.acquire().value(1);
+        bus.emit(tick);
+        assertSame(tick, pool.acquire());
+    }
+
+    @Test
+    public void debugPoolDetectsUseAfterRelease() {
+        EventPool<Tick> pool = EventPool.debug(Tick::new);
+        EventBus<Tick> bus = EventBus.pooled(EventBus.DIRECT_EXECUTOR);
+        AtomicReference<Tick> kept = new AtomicReference<>();
+        bus.consume(kept::set);
+
+        Tick tick = pool.acquire().value(1);
+        bus.emit(tick);
+
+        assertSame(tick, kept.get());
+        try {
+            kept.get().value();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            bus.emit(tick);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertNotSame(tick, pool.acquire());
+    }
+
+    @Test
+    public void debugPoolDetectsEmissionAfterReleaseOnEmittingThread() throws Exception {
+        EventPool<Tick> pool = EventPool.debug(Tick::new);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            EventBus<Tick> bus = EventBus.pooled(executor);
+            CountDownLatch processed = new CountDownLatch(1);
+            bus.consume(tick -> processed.countDown());
+
+            Tick tick = pool.acquire().value(1);
+            bus.emit(tick);
+            assertTrue(processed.await(5, TimeUnit.SECONDS));
+            // The reference of the emitter is released once the dispatch is done with the event.
+            executor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+
+            try {
+                bus.emit(tick);
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+            try {
+                bus.emitAll(Collections.singletonList(tick));
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void releasingMoreThanRetainedFails() {
+        Tick tick = EventPool.create(Tick::new, 1).acquire();
+        tick.release();
+        tick.release();
+    }
+
+    private static class Tick extends PooledEvent {
+        private long value;
+
+        Tick value(long value) {
+            this.value = value;
+            return this;
+        }
+
+        long value() {
+            checkNotReleased();
+            return value;
+        }
+
+        @Override
+        protected void reset() {
+            value = -1;
+        }
+    }
+}
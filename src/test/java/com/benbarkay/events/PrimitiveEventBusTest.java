@@ -0,0 +1,86 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PrimitiveEventBusTest {
+
+    @Test
+    public void stagesAreEvaluatedInOrder() {
+        LongEventBus bus = LongEventBus.create();
+        List<Long> received = new ArrayList<>();
+        List<Long> peeked = new ArrayList<>();
+        bus.filter(e -> e % 2 == 0)
+                .peek(peeked::add)
+                .map(e -> e * 10)
+                .consume(received::add);
+
+        for (long i = 0; i < 6; i++) {
+            bus.emit(i);
+        }
+
+        assertEquals(Arrays.asList(0L, 2L, 4L), peeked);
+        assertEquals(Arrays.asList(0L, 20L, 40L), received);
+    }
+
+    @Test
+    public void cancellingDerivedSubscriptionUnsubscribesFromBus() {
+        DoubleEventBus bus = DoubleEventBus.create();
+        List<Double> received = new ArrayList<>();
+        EventSubscription subscription = bus.map(e -> e * 2).consume(received::add);
+        assertTrue(bus.hasSubscribers());
+
+        bus.emit(1.5);
+        assertTrue(subscription.cancel());
+        assertFalse(subscription.cancel());
+        bus.emit(2.5);
+
+        assertFalse(bus.hasSubscribers());
+        assertEquals(Arrays.asList(3.0), received);
+    }
+
+    @Test
+    public void convertsToAndFromGenericSources() {
+        EventBus<String> strings = EventBus.blocking();
+        IntEventBus lengths = IntEventBus.create();
+        strings.mapToInt(String::length).forward(lengths);
+        List<String> received = new ArrayList<>();
+        EventSource<String> boxed = lengths.mapToLong(e -> e * 1000L).mapToObj(e -> e + "ms");
+        EventSubscription subscription = boxed.consume(received::add);
+
+        strings.emit("ab");
+        strings.emit("abcd");
+        assertEquals(Arrays.asList("2000ms", "4000ms"), received);
+
+        subscription.cancel();
+        assertFalse(lengths.hasSubscribers());
+    }
+
+    @Test
+    public void subscriberErrorsAreReportedToSubscriptionThenBus() {
+        LongEventBus bus = LongEventBus.create();
+        List<Throwable> subscriptionErrors = new ArrayList<>();
+        List<Throwable> busErrors = new ArrayList<>();
+        List<Long> received = new ArrayList<>();
+        bus.error(busErrors::add);
+        IllegalStateException handled = new IllegalStateException();
+        IllegalArgumentException unhandled = new IllegalArgumentException();
+        bus.consume(e -> {
+            throw e == 0 ? handled : unhandled;
+        }).error(IllegalStateException.class, subscriptionErrors::add);
+        bus.consume(received::add);
+
+        bus.emit(0);
+        bus.emit(1);
+
+        assertEquals(Arrays.asList(handled), subscriptionErrors);
+        assertEquals(1, busErrors.size());
+        assertSame(unhandled, busErrors.get(0).getCause());
+        assertEquals(Arrays.asList(0L, 1L), received);
+    }
+}
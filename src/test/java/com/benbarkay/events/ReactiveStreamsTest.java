@@ -0,0 +1,197 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ReactiveStreamsTest {
+    @Test
+    public void publisherDeliversOnlyRequestedEvents() {
+        EventBus<String> bus = EventBus.blocking();
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        ReactiveStreams.toPublisher(bus).subscribe(subscriber);
+
+        Stream.of("1", "2", "3").forEach(bus::emit);
+        assertEquals(Collections.emptyList(), subscriber.received);
+
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList("1", "2"), subscriber.received);
+
+        subscriber.subscription.request(5);
+        bus.emit("4");
+        assertEquals(Arrays.asList("1", "2", "3", "4"), subscriber.received);
+    }
+
+    @Test
+    public void cancellingPublisherSubscriptionCancelsEventSubscription() {
+        EventBus<String> bus = EventBus.blocking();
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<>();
+        ReactiveStreams.toPublisher(bus).subscribe(subscriber);
+        assertTrue(bus.hasSubscribers());
+
+        subscriber.subscription.cancel();
+        assertFalse(bus.hasSubscribers());
+    }
+
+    @Test
+    public void publisherSignalsErrorOnOverflowAndNonPositiveRequest() {
+        EventBus<String> bus = EventBus.blocking();
+        RecordingSubscriber<String> overflowing = new RecordingSubscriber<>();
+        RecordingSubscriber<String> misbehaving = new RecordingSubscriber<>();
+        Publisher<String> publisher = ReactiveStreams.toPublisher(bus, bus.executor(), 1, OverflowPolicy.FAIL);
+        publisher.subscribe(overflowing);
+        publisher.subscribe(misbehaving);
+
+        misbehaving.subscription.request(0);
+        Stream.of("1", "2").forEach(bus::emit);
+
+        assertTrue(overflowing.error instanceof EventOverflowException);
+        assertTrue(misbehaving.error instanceof IllegalArgumentException);
+        assertFalse(bus.hasSubscribers());
+    }
+
+    @Test
+    public void eventSourceRequestsFromPublisherAsEventsAreDispatched() {
+        List<Long> requests = new ArrayList<>();
+        List<Subscriber<? super Integer>> subscribers = new ArrayList<>();
+        Publisher<Integer> publisher = subscriber -> {
+            subscribers.add(subscriber);
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                    requests.add(n);
+                }
+
+                @Override
+                public void cancel() {
+                    requests.add(-1L);
+                }
+            });
+        };
+        List<Integer> actual = new ArrayList<>();
+        EventSubscription subscription = ReactiveStreams.toEventSource(publisher, EventBus.DIRECT_EXECUTOR, 4)
+                .consume(actual::add);
+        assertEquals(Collections.singletonList(4L), requests);
+
+        subscribers.get(0).onNext(1);
+        subscribers.get(0).onNext(2);
+        assertEquals(Arrays.asList(1, 2), actual);
+        assertEquals(Arrays.asList(4L, 2L), requests);
+
+        // Cancelled as soon as the source has no subscribers, rather than on the next item.
+        subscription.cancel();
+        assertEquals(Arrays.asList(4L, 2L, -1L), requests);
+        subscribers.get(0).onNext(3);
+        assertEquals(Arrays.asList(1, 2), actual);
+    }
+
+    @Test
+    public void eventSourceSubscribesToPublisherAnewOnceResubscribed() {
+        List<Subscriber<? super Integer>> subscribers = new ArrayList<>();
+        List<Integer> cancelled = new ArrayList<>();
+        Publisher<Integer> publisher = subscriber -> {
+            int index = subscribers.size();
+            subscribers.add(subscriber);
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled.add(index);
+                }
+            });
+        };
+        EventSource<Integer> source = ReactiveStreams.toEventSource(publisher, EventBus.DIRECT_EXECUTOR, 4);
+        source.consume(e -> {}).cancel();
+        assertEquals(Collections.singletonList(0), cancelled);
+
+        List<Integer> actual = new ArrayList<>();
+        source.consume(actual::add);
+        assertEquals(2, subscribers.size());
+        subscribers.get(1).onNext(1);
+        assertEquals(Collections.singletonList(1), actual);
+        assertEquals(Collections.singletonList(0), cancelled);
+    }
+
+    @Test
+    public void subscriberIsSubscribedBeforeAnythingIsSignalled() {
+        EventBus<String> bus = EventBus.blocking();
+        List<String> signals = new ArrayList<>();
+        ReactiveStreams.toPublisher(bus, bus.executor(), 1, OverflowPolicy.FAIL).subscribe(new Subscriber<String>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                signals.add("onSubscribe");
+                // Requested before the publisher has subscribed to the bus.
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(String s) {
+                signals.add(s);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                signals.add("onError");
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        bus.emit("1");
+        assertEquals(Arrays.asList("onSubscribe", "1"), signals);
+    }
+
+    @Test
+    public void subscriptionIsCancelledIfSubscriberFailedBeforeItWasMade() {
+        EventBus<String> bus = EventBus.blocking();
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                subscription.request(0);
+            }
+        };
+        ReactiveStreams.toPublisher(bus).subscribe(subscriber);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertFalse(bus.hasSubscribers());
+    }
+
+    private static class RecordingSubscriber<T> implements Subscriber<T> {
+        private final List<T> received = new ArrayList<>();
+        private Subscription subscription;
+        private Throwable error;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T t) {
+            received.add(t);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
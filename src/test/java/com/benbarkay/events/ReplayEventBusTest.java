@@ -0,0 +1,101 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ReplayEventBusTest {
+
+    @Test
+    public void lastValueIsReplayedToLateSubscribers() throws Exception {
+        ReplayEventBus<String> bus = ReplayEventBus.lastValue(EventBus.DIRECT_EXECUTOR);
+        List<String> actual = new ArrayList<>();
+        bus.emit("first");
+        bus.emit("second");
+
+        bus.consume(actual::add);
+        bus.emit("third");
+
+        assertEquals(Arrays.asList("second", "third"), actual);
+        assertEquals("third", bus.capture().get(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void lastEventsAreReplayedUpToCount() {
+        ReplayEventBus<Integer> bus = ReplayEventBus.replay(EventBus.DIRECT_EXECUTOR, 3);
+        List<Integer> actual = new ArrayList<>();
+        List<Integer> empty = new ArrayList<>();
+        ReplayEventBus.<Integer>replay(EventBus.DIRECT_EXECUTOR, 3).consume(empty::add);
+        for (int i = 0; i < 5; i++) {
+            bus.emit(i);
+        }
+
+        bus.map(i -> i * 10).consume(actual::add);
+
+        assertEquals(Arrays.asList(20, 30, 40), actual);
+        assertEquals(Collections.emptyList(), empty);
+    }
+
+    @Test
+    public void eventsOutsideOfWindowAreNotReplayed() throws InterruptedException {
+        ReplayEventBus<Integer> bus = ReplayEventBus.replay(EventBus.DIRECT_EXECUTOR, 10, 50, TimeUnit.MILLISECONDS);
+        List<Integer> actual = new ArrayList<>();
+        bus.emit(1);
+        Thread.sleep(100);
+        bus.emit(2);
+
+        bus.consume(actual::add);
+
+        assertEquals(Collections.singletonList(2), actual);
+    }
+
+    @Test
+    public void cancelledSubscriptionsAreRemoved() {
+        ReplayEventBus<Integer> bus = ReplayEventBus.lastValue(EventBus.DIRECT_EXECUTOR);
+        bus.emit(1);
+        EventSubscription subscription = bus.consume(i -> {});
+        assertTrue(bus.hasSubscribers());
+
+        subscription.cancel();
+        assertFalse(bus.hasSubscribers());
+        bus.subscribe(EventSubscriber.cancelling());
+        assertFalse(bus.hasSubscribers());
+    }
+
+    @Test
+    public void subscribersConcurrentWithEmissionReceiveNoGapsOrDuplicates() throws InterruptedException {
+        int events = 200_000;
+        ReplayEventBus<Integer> bus = ReplayEventBus.replay(EventBus.DIRECT_EXECUTOR, 16);
+        Thread emitter = new Thread(() -> {
+            for (int i = 0; i < events; i++) {
+                bus.emit(i);
+            }
+        });
+        List<List<Integer>> received = new ArrayList<>();
+        emitter.start();
+        while (emitter.isAlive() && received.size() < 100) {
+            List<Integer> subscriberEvents = Collections.synchronizedList(new ArrayList<>());
+            received.add(subscriberEvents);
+            bus.consume(subscriberEvents::add);
+            Thread.yield();
+        }
+        emitter.join();
+
+        for (List<Integer> subscriberEvents : received) {
+            if (subscriberEvents.isEmpty()) {
+                continue;
+            }
+            int first = subscriberEvents.get(0);
+            for (int i = 0; i < subscriberEvents.size(); i++) {
+                assertEquals(first + i, (int) subscriberEvents.get(i));
+            }
+            assertEquals(events - 1, (int) subscriberEvents.get(subscriberEvents.size() - 1));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class RingBufferExecutorTest {
+    @Test
+    public void eventsOfEachProducerAreDeliveredInOrder() throws InterruptedException {
+        int producers = 4;
+        int eventsPerProducer = 10_000;
+        EventBus<int[]> bus = EventBus.ringBuffer(64, RingBufferExecutor.WaitStrategy.PARK);
+        int[] lastSeen = new int[producers];
+        List<String> violations = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(producers * eventsPerProducer);
+        bus.consume(event -> {
+            if (event[1] != lastSeen[event[0]] + 1) {
+                violations.add(event[0] + ": " + event[1] + " after " + lastSeen[event[0]]);
+            }
+            lastSeen[event[0]] = event[1];
+            done.countDown();
+        });
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                for (int i = 1; i <= eventsPerProducer; i++) {
+                    bus.emit(new int[] { producer, i });
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(new ArrayList<String>(), violations);
+        bus.shutdown();
+    }
+
+    @Test
+    public void derivedSourcesDoNotDeadlockWhenRingIsFull() throws InterruptedException {
+        RingBufferExecutor executor = new RingBufferExecutor(2, RingBufferExecutor.WaitStrategy.BUSY_SPIN);
+        EventBus<Integer> bus = EventBus.create(executor);
+        CountDownLatch done = new CountDownLatch(100);
+        bus.map(i -> i + 1)
+                .filter(i -> i > 0)
+                .consume(i -> done.countDown());
+
+        for (int i = 0; i < 100; i++) {
+            bus.emit(i);
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void rejectsTasksAfterShutdown() {
+        RingBufferExecutor executor = new RingBufferExecutor(8, RingBufferExecutor.WaitStrategy.YIELD);
+        executor.shutdown();
+        executor.execute(() -> {});
+    }
+
+    @Test
+    public void tasksAcceptedWhileShuttingDownAreRun() throws InterruptedException {
+        for (int round = 0; round < 100; round++) {
+            RingBufferExecutor executor = new RingBufferExecutor(4, RingBufferExecutor.WaitStrategy.YIELD);
+            AtomicInteger accepted = new AtomicInteger();
+            AtomicInteger ran = new AtomicInteger();
+            List<Thread> threads = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                threads.add(new Thread(() -> {
+                    try {
+                        while (true) {
+                            executor.execute(ran::incrementAndGet);
+                            accepted.incrementAndGet();
+                        }
+                    } catch (RejectedExecutionException e) {
+                        // Shut down.
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            Thread.sleep(1);
+            executor.shutdown();
+            for (Thread thread : threads) {
+                thread.join(10_000);
+                assertFalse(thread.isAlive());
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (ran.get() != accepted.get() && System.nanoTime() < deadline) {
+                Thread.yield();
+            }
+            assertEquals(accepted.get(), ran.get());
+        }
+    }
+
+    @Test
+    public void shuttingDownBusDeliversEmittedEvents() throws InterruptedException {
+        EventBus<Integer> bus = EventBus.ringBuffer(8, RingBufferExecutor.WaitStrategy.PARK);
+        CountDownLatch done = new CountDownLatch(100);
+        bus.consume(i -> done.countDown());
+
+        for (int i = 0; i < 100; i++) {
+            bus.emit(i);
+        }
+        bus.shutdown();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        try {
+            bus.emit(100);
+            fail();
+        } catch (RejectedExecutionException e) {
+            // Expected.
+        }
+    }
+}
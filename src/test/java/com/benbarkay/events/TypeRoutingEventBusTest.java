@@ -0,0 +1,63 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TypeRoutingEventBusTest {
+
+    interface Named {
+    }
+
+    static class Created implements Named {
+    }
+
+    static class Deleted implements Named {
+    }
+
+    @Test
+    public void eventsAreRoutedToSourcesOfAssignableTypes() {
+        List<Object> all = new ArrayList<>();
+        List<Object> named = new ArrayList<>();
+        List<Object> created = new ArrayList<>();
+        TypeRoutingEventBus<Object> bus = TypeRoutingEventBus.blocking();
+        bus.consume(all::add);
+        bus.filter(Named.class).consume(named::add);
+        bus.filter(Created.class).consume(created::add);
+
+        Created first = new Created();
+        Deleted second = new Deleted();
+        bus.emit(first);
+        bus.emit(second);
+        bus.emit("unrelated");
+
+        assertEquals(Arrays.asList(first, second, "unrelated"), all);
+        assertEquals(Arrays.asList(first, second), named);
+        assertEquals(Collections.singletonList(first), created);
+    }
+
+    @Test
+    public void filteringBySameTypeReturnsSameSource() {
+        TypeRoutingEventBus<Object> bus = TypeRoutingEventBus.blocking();
+        assertSame(bus.filter(Created.class), bus.filter(Created.class));
+    }
+
+    @Test
+    public void typesAddedAfterEmissionReceiveSubsequentEvents() {
+        List<Object> deleted = new ArrayList<>();
+        TypeRoutingEventBus<Object> bus = TypeRoutingEventBus.blocking();
+        bus.filter(Created.class).consume(e -> {});
+        bus.emit(new Deleted());
+
+        bus.filter(Deleted.class).consume(deleted::add);
+        Deleted event = new Deleted();
+        bus.emit(event);
+
+        assertEquals(Collections.singletonList(event), deleted);
+    }
+}
@@ -0,0 +1,54 @@
+package com.benbarkay.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class VirtualThreadsTest {
+    @Test
+    public void blockingSubscribersReceiveEventsInOrder() throws InterruptedException {
+        assumeTrue(VirtualThreads.isAvailable());
+        int subscribers = 1000;
+        int events = 10;
+        EventBus<Integer> bus = EventBus.blocking();
+        CountDownLatch done = new CountDownLatch(subscribers * events);
+        List<List<Integer>> received = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) {
+            List<Integer> subscriberEvents = new ArrayList<>();
+            received.add(subscriberEvents);
+            bus.subscribeOnVirtualThread((e, s) -> {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                subscriberEvents.add(e);
+                done.countDown();
+            });
+        }
+
+        for (int i = 0; i < events; i++) {
+            bus.emit(i);
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (List<Integer> subscriberEvents : received) {
+            for (int i = 0; i < events; i++) {
+                assertEquals(i, (int) subscriberEvents.get(i));
+            }
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void subscribingFailsWithoutVirtualThreads() {
+        assumeFalse(VirtualThreads.isAvailable());
+        EventBus.<Integer>blocking().subscribeOnVirtualThread((e, s) -> {});
+    }
+}